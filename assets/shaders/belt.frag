@@ -0,0 +1,13 @@
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+uniform vec4 u_color;
+
+varying float v_brightness;
+
+void main() {
+    // Particles are only a few pixels wide, so plain square points are used rather than gl_PointCoord,
+    // which needs GLSL 1.20 on desktop
+    gl_FragColor = vec4(u_color.rgb * v_brightness, u_color.a);
+}
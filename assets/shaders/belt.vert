@@ -0,0 +1,21 @@
+// Belt particles never move on the CPU: each vertex carries its orbit and the angle is derived from u_time.
+attribute vec4 a_orbit; // x: orbit radius, y: phase, z: angular speed in rad/s, w: size in world units
+
+uniform mat4 u_projTrans;
+uniform vec2 u_center;
+uniform float u_time; // seconds since the belt's epoch, the phases are those at the epoch
+uniform float u_axisRatio;
+uniform float u_pixelsPerUnit;
+
+varying float v_brightness;
+
+void main() {
+    float angle = a_orbit.y + a_orbit.z * u_time;
+    float s = sin(angle);
+    vec2 position = u_center + vec2(cos(angle), s * u_axisRatio) * a_orbit.x;
+    gl_Position = u_projTrans * vec4(position, 0.0, 1.0);
+    // Same depth cue as the bodies: larger in the lower half of the orbit
+    gl_PointSize = max(1.0, a_orbit.w * (1.5 - (1.0 + s) / 2.0) * u_pixelsPerUnit);
+    // A fixed shade per particle from its radius, the phase would change every time the belt is rebased
+    v_brightness = 0.6 + 0.4 * fract(a_orbit.x * 7.0);
+}
@@ -0,0 +1,11 @@
+// Orbit vertices are offsets from the parent before the tilt, the parent's position and axis ratio come per frame.
+attribute vec3 a_position; // xy: offset from the parent, z: parent slot
+
+uniform mat4 u_projTrans;
+uniform vec4 u_parents[64]; // xy: parent position, z: axis ratio
+
+void main() {
+    vec4 parent = u_parents[int(a_position.z)];
+    vec2 position = parent.xy + vec2(a_position.x, a_position.y * parent.z);
+    gl_Position = u_projTrans * vec4(position, 0.0, 1.0);
+}
@@ -0,0 +1,41 @@
+#ifdef GL_ES
+#ifdef GL_FRAGMENT_PRECISION_HIGH
+precision highp float;
+#else
+precision mediump float;
+#endif
+#endif
+
+// Wraps an equirectangular surface around a sphere seen from the side, with only GLSL 1.00 built-ins so it also
+// runs on Mesa's software renderers.
+uniform sampler2D u_texture;
+uniform float u_ambient;
+
+varying vec2 v_sphere;
+varying vec4 v_region;
+varying vec2 v_shade;
+varying vec2 v_light;
+
+const float PI = 3.14159265;
+
+void main() {
+    float r2 = dot(v_sphere, v_sphere);
+    if (r2 > 1.0) {
+        discard;
+    }
+    float z = sqrt(1.0 - r2);
+    // Longitude is measured from the middle of the visible half, the rotation slides the surface past it
+    float longitude = atan(v_sphere.x, z) / (2.0 * PI) + v_shade.x;
+    float latitude = asin(clamp(v_sphere.y, -1.0, 1.0)) / PI;
+    vec2 uv = v_region.xy + vec2(fract(longitude), 0.5 - latitude) * v_region.zw;
+    vec4 color = texture2D(u_texture, uv);
+
+    float light = 1.0;
+    if (dot(v_light, v_light) > 0.0) {
+        vec3 normal = vec3(v_sphere, z);
+        // The light sits slightly in front of the orbital plane, so the near side isn't cut in half
+        vec3 direction = normalize(vec3(v_light, 0.5));
+        light = u_ambient + (1.0 - u_ambient) * max(dot(normal, direction), 0.0);
+    }
+    gl_FragColor = vec4(color.rgb * light, color.a * v_shade.y);
+}
@@ -0,0 +1,21 @@
+// One quad per body, the fragment shader turns it into a lit, rotating sphere.
+attribute vec2 a_position;
+attribute vec2 a_texCoord0; // position on the quad, -1 to 1 on both axes
+attribute vec4 a_region;    // xy: top left of the surface in the texture, zw: its size
+attribute vec2 a_shade;     // x: rotation in turns, y: alpha
+attribute vec2 a_light;     // direction towards the light on screen, zero for bodies that shine themselves
+
+uniform mat4 u_projTrans;
+
+varying vec2 v_sphere;
+varying vec4 v_region;
+varying vec2 v_shade;
+varying vec2 v_light;
+
+void main() {
+    v_sphere = a_texCoord0;
+    v_region = a_region;
+    v_shade = a_shade;
+    v_light = a_light;
+    gl_Position = u_projTrans * vec4(a_position, 0.0, 1.0);
+}
@@ -0,0 +1,118 @@
+package com.kandclay.benchmarks;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.kandclay.Constants;
+import com.kandclay.managers.SheetFrames;
+import com.kandclay.managers.SpriteSheetAnimation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describing a sheet's frames with {@link SpriteSheetAnimation#createFrames(TextureRegion)} and looking frames up with
+ * {@link SheetFrames#getKeyFrame(float, TextureRegion)}. The texture only carries dimensions, nothing is uploaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnimationBenchmark {
+    @Param({"700", "2800", "8400"})
+    public int sheetSize;
+
+    private Texture texture;
+    private SheetFrames frames;
+    private final TextureRegion frame = new TextureRegion();
+    private float stateTime = 0f;
+
+    @Setup
+    public void setUp() {
+        BenchmarkWorld.initializeGdx();
+        texture = new Texture(new SizeOnlyTextureData(sheetSize, sheetSize));
+        frames = SpriteSheetAnimation.createFrames(new TextureRegion(texture));
+    }
+
+    @Benchmark
+    public SheetFrames createFrames() {
+        return SpriteSheetAnimation.createFrames(new TextureRegion(texture));
+    }
+
+    @Benchmark
+    public TextureRegion getKeyFrame() {
+        stateTime += Constants.Animation.FRAME_DURATION * 0.37f;
+        return frames.getKeyFrame(stateTime, frame);
+    }
+
+    private static class SizeOnlyTextureData implements TextureData {
+        private final int width;
+        private final int height;
+
+        SizeOnlyTextureData(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Custom;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return true;
+        }
+
+        @Override
+        public void prepare() {
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            throw new GdxRuntimeException("No pixmap, dimensions only");
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return false;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return Pixmap.Format.RGBA8888;
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return false;
+        }
+
+        @Override
+        public boolean isManaged() {
+            return false;
+        }
+    }
+}
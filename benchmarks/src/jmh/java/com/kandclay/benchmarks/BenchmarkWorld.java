@@ -0,0 +1,55 @@
+package com.kandclay.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.actors.CelestialBodyActor;
+import com.kandclay.actors.CelestialBodyGroup;
+import com.kandclay.headless.HeadlessGL;
+import com.kandclay.managers.SpriteSheetAnimation;
+import com.kandclay.managers.SpriteTierManifest;
+import com.kandclay.managers.TextureCache;
+import com.kandclay.simulation.OrbitSimulation;
+
+/** Shared setup for the benchmarks: a headless libGDX runtime and synthetic worlds of actors. */
+final class BenchmarkWorld {
+    private static boolean initialized = false;
+
+    private BenchmarkWorld() {
+    }
+
+    /**
+     * Starts a headless application so {@link Gdx#app}, {@link Gdx#files} and {@link Gdx#graphics} exist, and installs
+     * the stub {@link HeadlessGL}. Enough for code that creates GL objects without rendering anything.
+     */
+    static synchronized void initializeGdx() {
+        if (initialized) {
+            return;
+        }
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+        }, configuration);
+        HeadlessGL.install();
+        initialized = true;
+    }
+
+    /** Wraps every non-root body of the simulation in an actor inside a {@link CelestialBodyGroup}. */
+    static CelestialBodyGroup createActors(OrbitSimulation simulation) {
+        Array<SpriteTierManifest.Tier> tiers = new Array<SpriteTierManifest.Tier>();
+        tiers.add(new SpriteTierManifest.Tier("sprites/anim/moon.png", 100));
+        // Never drawn, so the sheet is never requested from the cache
+        SpriteSheetAnimation animation = new SpriteSheetAnimation(new TextureCache(null), tiers);
+
+        CelestialBodyGroup group = new CelestialBodyGroup();
+        for (int i = 0; i < simulation.size(); i++) {
+            float radius = simulation.getParent(i) < 0 ? 200f : 20f / simulation.getDepth(i);
+            CelestialBodyActor body = new CelestialBodyActor("body" + i, radius, radius, animation, simulation, i, 0f);
+            body.setPosition(simulation.getX(i) - radius, simulation.getY(i) - radius);
+            group.addActor(body);
+        }
+        return group;
+    }
+}
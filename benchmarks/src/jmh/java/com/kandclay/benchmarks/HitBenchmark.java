@@ -0,0 +1,67 @@
+package com.kandclay.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.kandclay.actors.CelestialBodyGroup;
+import com.kandclay.simulation.OrbitSimulation;
+import com.kandclay.simulation.SyntheticSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Pointer picking through {@link CelestialBodyGroup#hit} and nearest-body queries, per pointer event. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HitBenchmark {
+    private static final int POINTS = 1024;
+
+    @Param({"1000", "100000"})
+    public int bodyCount;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    private CelestialBodyGroup group;
+    private final float[] pointsX = new float[POINTS];
+    private final float[] pointsY = new float[POINTS];
+
+    @Setup
+    public void setUp() {
+        OrbitSimulation simulation = new OrbitSimulation(bodyCount + 1);
+        SyntheticSystem.populate(simulation, bodyCount, depth, 42L);
+        simulation.step(1 / 60f);
+        group = BenchmarkWorld.createActors(simulation);
+        group.act(1 / 60f);
+
+        RandomXS128 random = new RandomXS128(7L);
+        for (int i = 0; i < POINTS; i++) {
+            pointsX[i] = (random.nextFloat() * 2 - 1) * 4500f;
+            pointsY[i] = (random.nextFloat() * 2 - 1) * 4500f;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void hit(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(group.hit(pointsX[i], pointsY[i], true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void findNearest(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(group.findNearest(pointsX[i], pointsY[i], 200f));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kandclay.benchmarks;
+
+import com.kandclay.simulation.OrbitSimulation;
+import com.kandclay.simulation.SyntheticSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** One {@link OrbitSimulation#step(float)} over synthetic hierarchies, the pure data side of the orbit update. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrbitSimulationBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int bodyCount;
+
+    @Param({"1", "2", "3"})
+    public int depth;
+
+    private OrbitSimulation simulation;
+
+    @Setup
+    public void setUp() {
+        simulation = new OrbitSimulation(bodyCount + 1);
+        SyntheticSystem.populate(simulation, bodyCount, depth, 42L);
+    }
+
+    @Benchmark
+    public void step() {
+        simulation.step(1 / 60f);
+    }
+}
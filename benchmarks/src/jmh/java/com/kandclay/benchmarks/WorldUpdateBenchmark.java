@@ -0,0 +1,53 @@
+package com.kandclay.benchmarks;
+
+import com.kandclay.actors.CelestialBodyActor;
+import com.kandclay.actors.CelestialBodyGroup;
+import com.kandclay.simulation.OrbitSimulation;
+import com.kandclay.simulation.SyntheticSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-frame world update as the screen runs it: a simulation step, then every {@link CelestialBodyActor} copying
+ * its orbit position, the picking grid rebuild and the depth sort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorldUpdateBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int bodyCount;
+
+    @Param({"1", "2", "3"})
+    public int depth;
+
+    private OrbitSimulation simulation;
+    private CelestialBodyGroup group;
+
+    @Setup
+    public void setUp() {
+        simulation = new OrbitSimulation(bodyCount + 1);
+        SyntheticSystem.populate(simulation, bodyCount, depth, 42L);
+        group = BenchmarkWorld.createActors(simulation);
+    }
+
+    @Benchmark
+    public void stepAndAct() {
+        float delta = 1 / 60f;
+        simulation.step(delta);
+        group.act(delta);
+    }
+
+    @Benchmark
+    public void sortByDepth() {
+        group.sortByDepth();
+    }
+}
@@ -1,5 +1,7 @@
 package com.kandclay;
 
+import com.kandclay.simulation.OrbitalElements;
+
 public class Constants {
     public static final float LERP_FACTOR = 1f;
 
@@ -11,10 +13,38 @@ public class Constants {
         public static final int VIEWPORT_HEIGHT_PIXELS_INIT = 300;
     }
 
+    public static class Loading {
+        public static final int FRAME_BUDGET_MILLIS = 8;
+        // Textures uploaded per frame before the rest wait for the next, a 2048x2048 RGBA page
+        public static final long UPLOAD_BUDGET_BYTES = 16L * 1024 * 1024;
+        public static final float BAR_WIDTH = 300f;
+        public static final float BAR_HEIGHT = 20f;
+    }
+
+    public static class TextureCache {
+        public static final long BUDGET_BYTES = 256L * 1024 * 1024;
+        public static final long EVICTION_DELAY_MILLIS = 5000;
+        public static final float MIN_VISIBLE_PIXELS = 1f;
+    }
+
+    public static class DiskTextureCache {
+        // Decoded textures, cleared whenever assets.txt changes. Kept out of assets.txt and the jar by the build
+        public static final String DIRECTORY = "texture-cache";
+    }
+
     public static class Animation {
         public static final int NUM_ROWS = 28;
         public static final int NUM_COLS = 28;
         public static final float FRAME_DURATION = 5f / 100f;
+        public static final float TIER_HYSTERESIS = 0.15f;
+    }
+
+    /** Full resolution tiers played from their frame stream instead of the whole sheet, see StreamedAnimation. */
+    public static class Stream {
+        // Textures per streaming body: the frame shown and the ones decoded ahead of it
+        public static final int RING_FRAMES = 4;
+        // Bodies streaming at once, any others stay on the next tier down
+        public static final int MAX_OPEN = 8;
     }
 
     public static class Speed {
@@ -51,6 +81,127 @@ public class Constants {
         public static final float MOON = Speed.BASE * 3f;
     }
 
+    /**
+     * Shapes of the real orbits at the J2000 epoch: eccentricity, then inclination, argument of periapsis, longitude of
+     * the ascending node and mean anomaly in degrees. Sizes and periods stay the game's own.
+     */
+    public static class Elements {
+        public static final OrbitalElements MERCURY = new OrbitalElements(0.2056f, 7.005f, 29.126f, 48.331f, 174.794f);
+        public static final OrbitalElements VENUS = new OrbitalElements(0.0068f, 3.395f, 54.922f, 76.680f, 50.378f);
+        public static final OrbitalElements EARTH = new OrbitalElements(0.0167f, 0f, 102.937f, 0f, 357.527f);
+        public static final OrbitalElements MOON = new OrbitalElements(0.0549f, 5.145f, 318.15f, 125.08f, 134.96f);
+        public static final OrbitalElements MARS = new OrbitalElements(0.0934f, 1.850f, 286.496f, 49.560f, 19.391f);
+        public static final OrbitalElements JUPITER = new OrbitalElements(0.0484f, 1.304f, 274.254f, 100.474f, 19.668f);
+        public static final OrbitalElements SATURN = new OrbitalElements(0.0539f, 2.486f, 338.937f, 113.662f, 317.355f);
+        public static final OrbitalElements URANUS = new OrbitalElements(0.0473f, 0.773f, 96.937f, 74.017f, 142.284f);
+        public static final OrbitalElements NEPTUNE = new OrbitalElements(0.0086f, 1.770f, 273.181f, 131.784f, 259.915f);
+
+        /** Returns the elements of the named body, or null for bodies without any. */
+        public static OrbitalElements of(String name) {
+            switch (name) {
+                case "mercury":
+                    return MERCURY;
+                case "venus":
+                    return VENUS;
+                case "earth":
+                    return EARTH;
+                case "moon":
+                    return MOON;
+                case "mars":
+                    return MARS;
+                case "jupiter":
+                    return JUPITER;
+                case "saturn":
+                    return SATURN;
+                case "uranus":
+                    return URANUS;
+                case "neptune":
+                    return NEPTUNE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    public static class Gravity {
+        // G times the sun's mass, chosen so that the Earth keeps its period: GM = angular speed^2 * distance^3
+        public static final double STAR_PARAMETER = Math.pow(Math.toRadians(OrbitSpeed.EARTH), 2)
+            * Math.pow(Distance.EARTH_TO_SUN_PIXELS, 3);
+        public static final float COMET_RADIUS_PIXELS = 10f;
+        public static final float COMET_START_DISTANCE_PIXELS = Distance.NEPTUNE_TO_SUN_PIXELS * 1.2f;
+        public static final float COMET_MIN_PERIHELION_PIXELS = 150f;
+        public static final float COMET_MAX_PERIHELION_PIXELS = Distance.JUPITER_TO_SUN_PIXELS;
+        // Fraction of the escape speed at the start, below 1 the comets are bound and come back
+        public static final float COMET_SPEED_FRACTION = 0.95f;
+    }
+
+    /** Real masses as fractions of the sun's. */
+    public static class Mass {
+        public static double of(String name) {
+            switch (name) {
+                case "sun":
+                    return 1;
+                case "mercury":
+                    return 1.66e-7;
+                case "venus":
+                    return 2.45e-6;
+                case "earth":
+                    return 3.00e-6;
+                case "moon":
+                    return 3.69e-8;
+                case "mars":
+                    return 3.23e-7;
+                case "jupiter":
+                    return 9.55e-4;
+                case "saturn":
+                    return 2.86e-4;
+                case "uranus":
+                    return 4.37e-5;
+                case "neptune":
+                    return 5.15e-5;
+                default:
+                    return 0;
+            }
+        }
+    }
+
+    /** Surfaces for the sphere renderer, regions of the atlas wrapped around each body. */
+    public static class Surface {
+        // One turn of the surface, the same as the rotation baked into the sheets
+        public static final float ROTATION_SECONDS = Animation.NUM_ROWS * Animation.NUM_COLS * Animation.FRAME_DURATION;
+        // Share of the light on the dark side, so the night half isn't black
+        public static final float AMBIENT = 0.25f;
+        public static final int MAX_BODIES_PER_FLUSH = 2048;
+
+        public static String of(String name) {
+            switch (name) {
+                case "sun":
+                    return "sun";
+                case "venus":
+                case "earth":
+                    return "terran";
+                case "jupiter":
+                case "saturn":
+                case "uranus":
+                case "neptune":
+                    return "ice";
+                default:
+                    return "baren";
+            }
+        }
+    }
+
+    public static class Date {
+        // Simulated time 0 is the epoch of the orbital elements
+        public static final float EPOCH_YEAR = 2000f;
+        public static final float MIN_YEAR = 1900f;
+        public static final float MAX_YEAR = 2100f;
+        // One Earth orbit is one year
+        public static final float SECONDS_PER_YEAR = 360f / OrbitSpeed.EARTH;
+        // Covers the date slider, refitted whenever the orbits no longer match
+        public static final String EPHEMERIS_FILE = "ephemeris.bin";
+    }
+
     public static class Distance {
         public static final float FACTOR = 1.4f;
         public static final float MERCURY_TO_SUN_PIXELS = 200 * FACTOR;
@@ -64,6 +215,39 @@ public class Constants {
         public static final float MOON_TO_EARTH_PIXELS = 100 * FACTOR;
     }
 
+    public static class Picking {
+        public static final float CELL_SIZE_PIXELS = 64f;
+        public static final int BUCKET_COUNT = 4096;
+    }
+
+    public static class Profiler {
+        // Frames kept for the percentiles, about ten seconds at 60 fps
+        public static final int WINDOW_FRAMES = 600;
+        public static final float OVERLAY_REFRESH_SECONDS = 0.5f;
+        public static final String CSV_FILE = "profiler.csv";
+    }
+
+    public static class Belt {
+        public static final float ASTEROID_INNER_PIXELS = 940 * Distance.FACTOR;
+        public static final float ASTEROID_OUTER_PIXELS = 1040 * Distance.FACTOR;
+        public static final int ASTEROID_COUNT = 50000;
+        public static final float ASTEROID_SIZE_PIXELS = 1.5f;
+        public static final float KUIPER_INNER_PIXELS = 2150 * Distance.FACTOR;
+        public static final float KUIPER_OUTER_PIXELS = 2700 * Distance.FACTOR;
+        public static final int KUIPER_COUNT = 200000;
+        public static final float KUIPER_SIZE_PIXELS = 2f;
+    }
+
+    public static class OrbitPath {
+        // Length of one line segment on screen, the vertex count of an orbit follows its on-screen size
+        public static final float PIXELS_PER_SEGMENT = 8f;
+        public static final int MIN_SEGMENTS = 16;
+        public static final int MAX_SEGMENTS = 512;
+        // Orbits smaller than this on screen are left out
+        public static final float MIN_RADIUS_PIXELS = 2f;
+        public static final float ALPHA = 0.3f;
+    }
+
     public enum CelestialBody {
         SUN,
         MERCURY,
@@ -88,5 +272,7 @@ public class Constants {
         public static final float SLIDER_X_OFFSET = 150f;
         public static final float BUTTON_X_OFFSET = 10f;
         public static final float PADDING = 20f;
+        // The time warp slider goes from x1 to x10^TIME_WARP_MAX_EXPONENT
+        public static final float TIME_WARP_MAX_EXPONENT = 4f;
     }
 }
@@ -1,14 +1,19 @@
 package com.kandclay;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.kandclay.managers.MyAssetManager;
+import com.kandclay.screens.LoadingScreen;
 import com.kandclay.screens.MenuScreen;
+import com.kandclay.telemetry.Telemetry;
 
 /** {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms. */
 public class Main extends Game {
     SpriteBatch batch;
     public boolean clockwiseDirection = true;
+    /** Draw bodies as shaded spheres instead of their sprite sheets. */
+    public boolean sphereBodies = false;
     public MyAssetManager assetManager;
 
     @Override
@@ -16,8 +21,30 @@ public class Main extends Game {
         batch = new SpriteBatch();
         assetManager = new MyAssetManager();
         assetManager.loadAssets();
-        assetManager.finishLoading();
-        this.setScreen(new MenuScreen(this));
+        final Main game = this;
+        this.setScreen(new LoadingScreen(this, assetManager.getMenuAssets(), new Runnable() {
+            @Override
+            public void run() {
+                game.setScreen(new MenuScreen(game));
+            }
+        }));
+    }
+
+    @Override
+    public void setScreen(Screen screen) {
+        Screen previous = getScreen();
+        Object change = Telemetry.get().beginScreenChange();
+        super.setScreen(screen);
+        Telemetry.get().endScreenChange(change, previous == null ? "none" : previous.getClass().getSimpleName(),
+            screen == null ? "none" : screen.getClass().getSimpleName());
+    }
+
+    @Override
+    public void render() {
+        // Keep loading in the background, the menu is shown while the planet sheets are still being decoded. Only the
+        // loading screen gives the rest of its frame to it.
+        assetManager.update(getScreen() instanceof LoadingScreen);
+        super.render();
     }
 
     @Override
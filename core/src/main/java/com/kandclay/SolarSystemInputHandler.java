@@ -98,6 +98,12 @@ public class SolarSystemInputHandler extends InputAdapter {
             case Keys.RIGHT:
                 cameraController.selectNextBody();
                 break;
+            case Keys.F3:
+                solarSystemUI.toggleProfilerOverlay();
+                break;
+            case Keys.F4:
+                solarSystemUI.toggleProfilerCsv();
+                break;
         }
         if (num >= 0) {
             cameraController.setTargetBody(cameraController.getCelestialBodies().get(num));
@@ -1,6 +1,7 @@
 package com.kandclay;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.Actor;
@@ -13,26 +14,38 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.kandclay.actors.CelestialBodyActor;
 import com.kandclay.controllers.CameraController;
+import com.kandclay.managers.CelestialBodyFactory;
+import com.kandclay.managers.FrameProfiler;
+import com.kandclay.managers.FrameProfiler.Phase;
+import com.kandclay.managers.TextureCache;
+import com.kandclay.simulation.BeltField;
+import com.kandclay.simulation.OrbitSimulation;
 import com.kandclay.screens.MenuScreen;
 import com.kandclay.screens.SolarSystemScreen;
 
-import java.util.Objects;
+import java.util.Locale;
 
 import static com.kandclay.Constants.UI.*;
 
 public class SolarSystemUI {
     private final Skin skin;
     private final Array<CelestialBodyActor> celestialBodies;
+    private final OrbitSimulation simulation;
     private final Main game;
     private Slider orbitAngleSlider;
     private Slider speedSlider;
     private Label orbitAngleLabel;
     private Label speedLabel;
+    private Slider dateSlider;
+    private Label dateLabel;
+    private int shownDateTenths = Integer.MIN_VALUE;
     private TextButton modeButton;
     private TextButton nextButton;
     private TextButton prevButton;
     private TextButton toggleDirectionButton;
     private TextButton mainMenuButton;
+    private TextButton gravityButton;
+    private TextButton cometButton;
     private Stage uiStage;
     private ScreenViewport uiViewport;
     private boolean enlargeMode = true;
@@ -40,11 +53,20 @@ public class SolarSystemUI {
     private WidgetGroup uiGroup;
     private Window infoWindow;
     private Label infoLabel;
+    private final FrameProfiler profiler;
+    private final CelestialBodyFactory celestialBodyFactory;
+    private Label profilerLabel;
+    private float profilerRefreshTime = 0;
 
-    public SolarSystemUI(Skin skin, Array<CelestialBodyActor> celestialBodies, CameraController cameraController, Main game) {
+    public SolarSystemUI(Skin skin, Array<CelestialBodyActor> celestialBodies, OrbitSimulation simulation,
+                         CameraController cameraController, FrameProfiler profiler,
+                         CelestialBodyFactory celestialBodyFactory, Main game) {
         this.skin = skin;
         this.celestialBodies = celestialBodies;
+        this.simulation = simulation;
         this.cameraController = cameraController;
+        this.profiler = profiler;
+        this.celestialBodyFactory = celestialBodyFactory;
         this.game = game;
     }
 
@@ -59,7 +81,9 @@ public class SolarSystemUI {
         initializeNavigationButtons();
         initializeToggleDirectionButton();
         initializeMainMenuButton();
+        initializeGravityButtons();
         initializeInfoWindow();
+        initializeProfilerOverlay();
 
         // addStageClickListener();
         updatePositions();
@@ -82,6 +106,71 @@ public class SolarSystemUI {
         uiStage.addActor(infoWindow);
     }
 
+    private void initializeProfilerOverlay() {
+        profilerLabel = new Label("", skin);
+        profilerLabel.setVisible(false);
+        uiStage.addActor(profilerLabel);
+    }
+
+    /** Shows or hides the frame time overlay, texture binds are only counted while it is shown. */
+    public void toggleProfilerOverlay() {
+        boolean visible = !profilerLabel.isVisible();
+        profilerLabel.setVisible(visible);
+        profiler.setActive(visible);
+        profilerRefreshTime = Constants.Profiler.OVERLAY_REFRESH_SECONDS;
+    }
+
+    /** Starts or stops streaming every frame to {@link Constants.Profiler#CSV_FILE} in the local storage. */
+    public void toggleProfilerCsv() {
+        if (profiler.isRecording()) {
+            profiler.stopCsv();
+        } else {
+            profiler.startCsv(Gdx.files.local(Constants.Profiler.CSV_FILE));
+        }
+        profilerRefreshTime = Constants.Profiler.OVERLAY_REFRESH_SECONDS;
+    }
+
+    /** Refreshes the overlay text a few times a second, the percentiles sort the whole window. */
+    public void updateProfilerOverlay(float delta) {
+        if (!profilerLabel.isVisible()) {
+            return;
+        }
+        profilerRefreshTime += delta;
+        if (profilerRefreshTime < Constants.Profiler.OVERLAY_REFRESH_SECONDS) {
+            return;
+        }
+        profilerRefreshTime = 0;
+
+        StringBuilder text = new StringBuilder("ms          p50    p95    p99\n");
+        for (Phase phase : Phase.values()) {
+            text.append(String.format(Locale.ROOT, "%-12s%6.2f %6.2f %6.2f\n", phase.name().toLowerCase(),
+                profiler.getPercentile(phase, 0.5f) / 1e6f, profiler.getPercentile(phase, 0.95f) / 1e6f,
+                profiler.getPercentile(phase, 0.99f) / 1e6f));
+        }
+        text.append(String.format(Locale.ROOT, "%-12s%6.2f %6.2f %6.2f\n", "frame",
+            profiler.getFramePercentile(0.5f) / 1e6f, profiler.getFramePercentile(0.95f) / 1e6f,
+            profiler.getFramePercentile(0.99f) / 1e6f));
+        text.append("render calls ").append(profiler.getRenderCalls())
+            .append(", texture binds ").append(profiler.getTextureBindings()).append('\n');
+        text.append("bodies drawn ").append(profiler.getDrawnBodies())
+            .append(", culled ").append(profiler.getCulledBodies()).append('\n');
+        TextureCache textureCache = game.assetManager.getTextureCache();
+        text.append(String.format(Locale.ROOT, "textures %d/%d MB, %d hits, %d misses, %d evictions",
+            textureCache.getResidentBytes() >> 20, textureCache.getBudgetBytes() >> 20, textureCache.getHits(),
+            textureCache.getMisses(), textureCache.getEvictions()));
+        if (profiler.isRecording()) {
+            text.append("\nrecording ").append(Constants.Profiler.CSV_FILE);
+        }
+        profilerLabel.setText(text);
+        profilerLabel.pack();
+        updateProfilerPosition();
+    }
+
+    private void updateProfilerPosition() {
+        profilerLabel.setPosition(uiViewport.getWorldWidth() - profilerLabel.getWidth() - Constants.UI.PADDING,
+            uiViewport.getWorldHeight() - profilerLabel.getHeight() - Constants.UI.PADDING);
+    }
+
     public void showInfoWindow(float screenX, float screenY, String info) {
         infoLabel.setText(info);
         infoWindow.pack();
@@ -98,12 +187,17 @@ public class SolarSystemUI {
         speedSlider = createSpeedSlider();
 
         orbitAngleLabel = new Label("Orbital Plane Angle", skin);
-        speedLabel = new Label("Orbital Speed", skin);
+        speedLabel = new Label("Time Warp x1", skin);
+        dateSlider = createDateSlider();
+        dateLabel = new Label("", skin);
+        updateDate();
 
         uiGroup.addActor(orbitAngleLabel);
         uiGroup.addActor(orbitAngleSlider);
         uiGroup.addActor(speedLabel);
         uiGroup.addActor(speedSlider);
+        uiGroup.addActor(dateLabel);
+        uiGroup.addActor(dateSlider);
     }
 
     private Slider createOrbitAngleSlider() {
@@ -117,29 +211,61 @@ public class SolarSystemUI {
                 for (CelestialBodyActor body : celestialBodies) {
                     body.setTargetEllipseAxisRatio(targetEllipseAxisRatio);
                 }
+                for (BeltField belt : simulation.getBelts()) {
+                    belt.setTargetAxisRatio(targetEllipseAxisRatio);
+                }
             }
         });
         return slider;
     }
 
+    /** Logarithmic time warp, the simulation stays at its fixed step and only covers more time per step. */
     private Slider createSpeedSlider() {
-        final Slider slider = new Slider(0, 10, 0.1f, false, skin);
-        slider.setValue(1f);
+        final Slider slider = new Slider(0, TIME_WARP_MAX_EXPONENT, 0.01f, false, skin);
+        slider.setValue(0f);
         slider.setSize(SLIDER_WIDTH, SLIDER_HEIGHT);
         slider.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                float speed = slider.getValue();
-                for (CelestialBodyActor body : celestialBodies) {
-                    if (!Objects.equals(body.getName(), "sun")) {
-                        body.setOrbitSpeed(body.getOrbitSpeed() * speed);
-                    }
-                }
+                float timeWarp = (float) Math.pow(10, slider.getValue());
+                simulation.setTimeWarp(timeWarp);
+                speedLabel.setText("Time Warp x" + Math.round(timeWarp));
+            }
+        });
+        return slider;
+    }
+
+    /** Scrubs through the years around the epoch, every body is placed directly at the chosen date. */
+    private Slider createDateSlider() {
+        final Slider slider = new Slider(Constants.Date.MIN_YEAR, Constants.Date.MAX_YEAR, 0.01f, false, skin);
+        slider.setSize(SLIDER_WIDTH, SLIDER_HEIGHT);
+        // Following the simulation in updateDate() must not jump it back to the slider's value
+        slider.setProgrammaticChangeEvents(false);
+        slider.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                simulation.setTime((slider.getValue() - Constants.Date.EPOCH_YEAR) * Constants.Date.SECONDS_PER_YEAR);
+                updateDate();
+                updateGravityButton();
             }
         });
         return slider;
     }
 
+    /** Moves the date slider along with the simulation, unless it is being dragged. */
+    public void updateDate() {
+        float year = Constants.Date.EPOCH_YEAR + (float) (simulation.getTime() / Constants.Date.SECONDS_PER_YEAR);
+        if (!dateSlider.isDragging()) {
+            dateSlider.setValue(year);
+        }
+        // Only rebuilt when the shown value changes, this runs every frame
+        int tenths = Math.round(year * 10);
+        if (tenths != shownDateTenths) {
+            shownDateTenths = tenths;
+            dateLabel.setText(String.format(Locale.ROOT, "Date %.1f", tenths / 10f));
+        }
+    }
+
     private void initializeModeButton() {
         modeButton = new TextButton("Switch to Shrink Mode", skin);
         modeButton.setSize(BUTTON_WIDTH, BUTTON_HEIGHT);
@@ -192,6 +318,9 @@ public class SolarSystemUI {
                 for (CelestialBodyActor body : celestialBodies) {
                     body.toggleOrbitDirection();
                 }
+                for (BeltField belt : simulation.getBelts()) {
+                    belt.toggleDirection();
+                }
             }
         });
         uiGroup.addActor(toggleDirectionButton);
@@ -210,6 +339,42 @@ public class SolarSystemUI {
         uiGroup.addActor(mainMenuButton);
     }
 
+    private void initializeGravityButtons() {
+        gravityButton = new TextButton("Enable Gravity", skin);
+        gravityButton.setSize(BUTTON_WIDTH, BUTTON_HEIGHT);
+        gravityButton.getLabel().setWrap(true);
+        gravityButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                simulation.setGravityEnabled(!simulation.isGravityEnabled());
+                updateGravityButton();
+            }
+        });
+
+        cometButton = new TextButton("Launch Comet", skin);
+        cometButton.setSize(BUTTON_WIDTH, BUTTON_HEIGHT);
+        cometButton.getLabel().setWrap(true);
+        cometButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                // Comets only move under gravity
+                simulation.setGravityEnabled(true);
+                updateGravityButton();
+                celestialBodyFactory.createComet(celestialBodies.get(Constants.CelestialBody.SUN.ordinal()),
+                    MathUtils.random(MathUtils.PI2),
+                    MathUtils.random(Constants.Gravity.COMET_MIN_PERIHELION_PIXELS, Constants.Gravity.COMET_MAX_PERIHELION_PIXELS));
+            }
+        });
+
+        uiGroup.addActor(gravityButton);
+        uiGroup.addActor(cometButton);
+    }
+
+    /** Scrubbing the date turns gravity off, so the button follows the simulation rather than its own clicks. */
+    private void updateGravityButton() {
+        gravityButton.setText(simulation.isGravityEnabled() ? "Disable Gravity" : "Enable Gravity");
+    }
+
     public Stage getUiStage() {
         return uiStage;
     }
@@ -232,11 +397,17 @@ public class SolarSystemUI {
         speedLabel.setPosition(orbitAngleLabel.getX(), orbitAngleSlider.getY() - orbitAngleSlider.getHeight() - Constants.UI.PADDING);
         speedSlider.setPosition(speedLabel.getX(), speedLabel.getY() - speedLabel.getHeight() - Constants.UI.PADDING);
 
+        dateLabel.setPosition(speedLabel.getX(), speedSlider.getY() - speedSlider.getHeight() - Constants.UI.PADDING);
+        dateSlider.setPosition(dateLabel.getX(), dateLabel.getY() - dateLabel.getHeight() - Constants.UI.PADDING);
+
         float buttonWidth = BUTTON_WIDTH / 2;
         prevButton.setPosition(modeButton.getX(), modeButton.getY() - BUTTON_HEIGHT - Constants.UI.PADDING);
         nextButton.setPosition(prevButton.getX() + buttonWidth, prevButton.getY());
 
         toggleDirectionButton.setPosition(prevButton.getX(), prevButton.getY() - BUTTON_HEIGHT - Constants.UI.PADDING);
         mainMenuButton.setPosition(toggleDirectionButton.getX(), toggleDirectionButton.getY() - BUTTON_HEIGHT - Constants.UI.PADDING);
+        cometButton.setPosition(uiViewport.getWorldWidth() - BUTTON_WIDTH - Constants.UI.PADDING, Constants.UI.PADDING);
+        gravityButton.setPosition(cometButton.getX(), cometButton.getY() + BUTTON_HEIGHT + Constants.UI.PADDING);
+        updateProfilerPosition();
     }
 }
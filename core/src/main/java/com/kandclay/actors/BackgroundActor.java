@@ -1,18 +1,21 @@
 package com.kandclay.actors;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Actor;
-import com.badlogic.gdx.graphics.Texture.TextureWrap;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 
+/**
+ * Fills the view with the background repeated across the world. The background is an atlas region, which can't use
+ * texture wrapping, so the visible part of each copy is drawn as its own quad, all from the same atlas page.
+ */
 public class BackgroundActor extends Actor {
-    private final Texture backgroundTexture;
+    private final TextureRegion background;
 
-    public BackgroundActor(Texture backgroundTexture) {
-        this.backgroundTexture = backgroundTexture;
-        this.backgroundTexture.setWrap(TextureWrap.Repeat, TextureWrap.Repeat);
+    public BackgroundActor(TextureRegion background) {
+        this.background = background;
     }
 
     @Override
@@ -26,22 +29,36 @@ public class BackgroundActor extends Actor {
             float viewportWidth = camera.viewportWidth * camera.zoom;
             float viewportHeight = camera.viewportHeight * camera.zoom;
 
-            // Center the background around the camera's position
-            float backgroundCenterX = camera.position.x;
-            float backgroundCenterY = camera.position.y;
+            float left = camera.position.x - viewportWidth / 2;
+            float bottom = camera.position.y - viewportHeight / 2;
+            float right = left + viewportWidth;
+            float top = bottom + viewportHeight;
 
-            // Calculate texture coordinates offset by the camera position to make the zoom effect centered on the camera
-            float u = (backgroundCenterX - viewportWidth / 2) / backgroundTexture.getWidth();
-            float v = (backgroundCenterY - viewportHeight / 2) / backgroundTexture.getHeight();
-            float u2 = u + viewportWidth / backgroundTexture.getWidth();
-            float v2 = v + viewportHeight / backgroundTexture.getHeight();
-
-            // Ensure the drawing is centered on the screen
-            float drawX = backgroundCenterX - viewportWidth / 2;
-            float drawY = backgroundCenterY - viewportHeight / 2;
-
-            // Draw the texture with calculated coordinates for wrapping
-            batch.draw(backgroundTexture, drawX, drawY, viewportWidth, viewportHeight, u, v, u2, v2);
+            // Copies sit at multiples of the region size, as the wrapped texture did
+            float tileWidth = background.getRegionWidth();
+            float tileHeight = background.getRegionHeight();
+            float firstTileX = MathUtils.floor(left / tileWidth) * tileWidth;
+            float firstTileY = MathUtils.floor(bottom / tileHeight) * tileHeight;
+            for (float tileY = firstTileY; tileY < top; tileY += tileHeight) {
+                float y1 = Math.max(bottom, tileY);
+                float y2 = Math.min(top, tileY + tileHeight);
+                for (float tileX = firstTileX; tileX < right; tileX += tileWidth) {
+                    float x1 = Math.max(left, tileX);
+                    float x2 = Math.min(right, tileX + tileWidth);
+                    drawPart(batch, (x1 - tileX) / tileWidth, (y1 - tileY) / tileHeight,
+                        (x2 - tileX) / tileWidth, (y2 - tileY) / tileHeight, x1, y1, x2 - x1, y2 - y1);
+                }
+            }
         }
     }
+
+    /** Draws the part of the region between the given fractions of its size. */
+    private void drawPart(Batch batch, float fromX, float fromY, float toX, float toY,
+                          float x, float y, float width, float height) {
+        float u = background.getU() + (background.getU2() - background.getU()) * fromX;
+        float u2 = background.getU() + (background.getU2() - background.getU()) * toX;
+        float v = background.getV() + (background.getV2() - background.getV()) * fromY;
+        float v2 = background.getV() + (background.getV2() - background.getV()) * toY;
+        batch.draw(background.getTexture(), x, y, width, height, u, v, u2, v2);
+    }
 }
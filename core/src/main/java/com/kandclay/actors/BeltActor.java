@@ -0,0 +1,96 @@
+package com.kandclay.actors;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.utils.Disposable;
+import com.kandclay.simulation.BeltField;
+import com.kandclay.simulation.OrbitSimulation;
+
+/** Draws a whole {@link BeltField} as one point-sprite mesh in a single draw call. */
+public class BeltActor extends Actor implements Disposable {
+    private final BeltField belt;
+    private final OrbitSimulation simulation;
+    private final Color color;
+    private final Mesh mesh;
+    private final ShaderProgram shader;
+    private final float[] initialVertices;
+    private final float[] vertices;
+    private int epochVersion = 0;
+
+    public BeltActor(BeltField belt, OrbitSimulation simulation, Color color) {
+        this.belt = belt;
+        this.simulation = simulation;
+        this.color = new Color(color);
+
+        mesh = new Mesh(true, belt.getCount(), 0,
+            new VertexAttribute(VertexAttributes.Usage.Generic, BeltField.FLOATS_PER_PARTICLE, "a_orbit"));
+        initialVertices = belt.createVertices();
+        vertices = initialVertices.clone();
+        mesh.setVertices(vertices);
+
+        shader = new ShaderProgram(Gdx.files.internal("shaders/belt.vert"), Gdx.files.internal("shaders/belt.frag"));
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("Belt shader failed to compile: " + shader.getLog());
+        }
+        setTouchable(Touchable.disabled);
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        Stage stage = getStage();
+        if (stage == null) {
+            return;
+        }
+        float centerX = simulation.getX(belt.getParent());
+        float centerY = simulation.getY(belt.getParent());
+        float outerRadius = belt.getOuterRadius();
+        if (!stage.getCamera().frustum.boundsInFrustum(centerX, centerY, 0, outerRadius, outerRadius, 0)) {
+            return;
+        }
+
+        if (epochVersion != belt.getEpochVersion()) {
+            epochVersion = belt.getEpochVersion();
+            belt.rebase(initialVertices, vertices);
+            mesh.setVertices(vertices);
+        }
+
+        float zoom = stage.getCamera() instanceof OrthographicCamera ? ((OrthographicCamera) stage.getCamera()).zoom : 1f;
+        float pixelsPerUnit = stage.getViewport().getScreenWidth() / stage.getViewport().getWorldWidth() / zoom;
+
+        batch.end();
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        if (Gdx.app.getType() == Application.ApplicationType.Desktop) {
+            // Lets gl_PointSize take effect, it's always on in GLES
+            Gdx.gl.glEnable(GL20.GL_VERTEX_PROGRAM_POINT_SIZE);
+        }
+
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", batch.getProjectionMatrix());
+        shader.setUniformf("u_center", centerX, centerY);
+        shader.setUniformf("u_time", belt.getTime());
+        shader.setUniformf("u_axisRatio", belt.getAxisRatio());
+        shader.setUniformf("u_pixelsPerUnit", pixelsPerUnit);
+        shader.setUniformf("u_color", color.r, color.g, color.b, color.a * parentAlpha);
+        mesh.render(shader, GL20.GL_POINTS);
+
+        batch.begin();
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+}
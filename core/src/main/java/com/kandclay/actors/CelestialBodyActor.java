@@ -1,49 +1,59 @@
 package com.kandclay.actors;
 
-import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.Frustum;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Logger;
-
-import java.util.Objects;
+import com.kandclay.Constants;
+import com.kandclay.managers.SheetFrames;
+import com.kandclay.managers.SpriteSheetAnimation;
+import com.kandclay.managers.StreamedAnimation;
+import com.kandclay.simulation.OrbitSimulation;
 
 public class CelestialBodyActor extends Actor {
 
     public String name;
     private float radius;
     private float touchRadius;
-    private final Animation<TextureRegion> animation;
+    private final SpriteSheetAnimation animation;
     private float stateTime = 0;
-    private final CelestialBodyActor orbitedBody;
-    private final float distanceToOrbitedBody;
+    private float animationPhase = 0;
+    // In turns, for the sphere renderer
+    private float rotation = 0;
+    private float rotationPeriod = Constants.Surface.ROTATION_SECONDS;
+    private TextureRegion surface;
+    // Open while the body is drawn at full resolution, instead of loading the whole sheet
+    private StreamedAnimation stream;
+    private int tier;
+    private boolean culled = false;
+    private final OrbitSimulation simulation;
+    private final int simulationIndex;
     private final float orbitSpeed;
-    private float orbitSpeedRadiansPerSecond;
-    private float currentOrbitAngleRadians = 0f;
-    private float ellipseAxisRatio = 1f;
-    private float targetEllipseAxisRatio = 1f;
     private final Circle touchableArea;
     private static final Logger logger = new Logger(CelestialBodyActor.class.getName(), Logger.DEBUG);
+    // Pointed at the current frame just before each draw, the batch copies its coordinates straight away
+    private static final TextureRegion frame = new TextureRegion();
     private boolean enlargeMode = true;
-    private boolean clockwiseDirection = true;
 
 
-    public CelestialBodyActor(String name, float radius, float touchRadius, Animation<TextureRegion> animation,
-                              CelestialBodyActor orbitedBody, float distanceToOrbitedBody, float orbitSpeed) {
+    public CelestialBodyActor(String name, float radius, float touchRadius, SpriteSheetAnimation animation,
+                              OrbitSimulation simulation, int simulationIndex, float orbitSpeed) {
         this.name = name;
         this.radius = radius;
         this.touchRadius = touchRadius;
         this.animation = animation;
-        this.orbitedBody = orbitedBody;
-        this.distanceToOrbitedBody = distanceToOrbitedBody;
+        this.tier = animation.getTierCount() - 1;
+        this.simulation = simulation;
+        this.simulationIndex = simulationIndex;
         this.orbitSpeed = orbitSpeed;
-        this.orbitSpeedRadiansPerSecond = MathUtils.degreesToRadians * orbitSpeed;
 
         setSize(radius * 2, radius * 2);
         setOrigin(getWidth() / 2, getHeight() / 2);  // Set the origin to the center
@@ -55,10 +65,14 @@ public class CelestialBodyActor extends Actor {
     @Override
     public void act(float delta) {
         super.act(delta);
-        stateTime += delta;
+        // The orbit keeps moving off-screen, only the rotation animation is paused
+        if (!culled) {
+            stateTime += delta;
+            rotation += delta / rotationPeriod;
+            rotation -= MathUtils.floor(rotation);
+        }
 
-        updateEllipseAxisRatio(delta);
-        updateOrbitPosition(delta);
+        updateOrbitPosition();
 
         // Update the position and radius of the touchable area
         float scale = getScaleX();  // Assuming uniform scaling
@@ -66,49 +80,144 @@ public class CelestialBodyActor extends Actor {
         touchableArea.setRadius(touchRadius * scale);
     }
 
-    private void updateEllipseAxisRatio(float delta) {
-        if (Math.abs(targetEllipseAxisRatio - ellipseAxisRatio) > 0.01f) {
-            float axisRatioInterpolationSpeed = 0.01f;
-            ellipseAxisRatio += (targetEllipseAxisRatio - ellipseAxisRatio) * axisRatioInterpolationSpeed;
-        }
+    /**
+     * Copies the position the {@link OrbitSimulation} computed for this body in the last step. Roots and free bodies
+     * have no orbit but still move under gravity, they are only never scaled.
+     */
+    private void updateOrbitPosition() {
+        setPosition(simulation.getX(simulationIndex) - getWidth() / 2, simulation.getY(simulationIndex) - getHeight() / 2);
+        setScale(simulation.hasOrbit(simulationIndex) ? simulation.getScale(simulationIndex) : 1f);
     }
 
-    private void updateOrbitPosition(float delta) {
-        if (Objects.equals(name, "sun")) {
+    /**
+     * Sort key for {@link CelestialBodyGroup}, larger is nearer. Bodies grow as they pass the near side of their
+     * orbit, so the orbit scale doubles as depth.
+     */
+    public float getDepth() {
+        return simulation.getScale(simulationIndex);
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        // Culled or sub-pixel bodies don't request their sheet, so the texture cache is free to evict it
+        if (culled || getProjectedRadius() < Constants.TextureCache.MIN_VISIBLE_PIXELS) {
+            releaseStream();
             return;
         }
-
-        if (clockwiseDirection) {
-            currentOrbitAngleRadians += orbitSpeedRadiansPerSecond * delta;
+        updateTier();
+        TextureRegion region;
+        if (tier == 0 && animation.hasStream()) {
+            region = streamFrame();
         } else {
-            currentOrbitAngleRadians -= orbitSpeedRadiansPerSecond * delta;
+            releaseStream();
+            region = sheetFrame(tier);
         }
-        currentOrbitAngleRadians %= MathUtils.PI2;
-
-        float centerX = orbitedBody.getX() + orbitedBody.getWidth() / 2;
-        float centerY = orbitedBody.getY() + orbitedBody.getHeight() / 2;
+        if (region == null) {
+            return;
+        }
+        batch.draw(region, getX(), getY(), getOriginX(), getOriginY(), getWidth(), getHeight(), getScaleX(), getScaleY(), getRotation());
+    }
 
-        float semiMinorAxis = distanceToOrbitedBody * ellipseAxisRatio;
+    /**
+     * The current frame from the body's stream, so the full resolution sheet is never loaded. Until the stream has a
+     * frame ready, or if no more streams can be opened, the frame comes from the next tier down.
+     */
+    private TextureRegion streamFrame() {
+        if (stream == null) {
+            stream = animation.openStream();
+        }
+        if (stream != null && stream.getKeyFrame(stateTime + animationPhase, frame) != null) {
+            return frame;
+        }
+        return sheetFrame(Math.min(1, animation.getTierCount() - 1));
+    }
 
-        float newOrbitX = centerX + distanceToOrbitedBody * MathUtils.cos(currentOrbitAngleRadians) - getWidth() / 2;
-        float newOrbitY = centerY + semiMinorAxis * MathUtils.sin(currentOrbitAngleRadians) - getHeight() / 2;
+    private TextureRegion sheetFrame(int tier) {
+        SheetFrames frames = animation.acquire(tier);
+        return frames == null ? null : frames.getKeyFrame(stateTime + animationPhase, frame);
+    }
 
-        setPosition(newOrbitX, newOrbitY);
+    /** Disposes the body's frame stream, if it has one open. */
+    public void releaseStream() {
+        if (stream != null) {
+            stream.dispose();
+            stream = null;
+        }
+    }
 
-        float scale = 2 - (0.5f + (1 + MathUtils.sin(currentOrbitAngleRadians)) / 2);
-        setScale(scale);
+    /**
+     * Queues the body as a sphere instead of a sheet frame, so no sheet is requested. The sphere fills the touchable
+     * area, which is the planet without Saturn's rings or the sun's glow.
+     */
+    public void drawSphere(SphereRenderer renderer, float parentAlpha) {
+        if (culled || getProjectedRadius() < Constants.TextureCache.MIN_VISIBLE_PIXELS) {
+            return;
+        }
+        if (surface == null) {
+            surface = renderer.findSurface(name);
+        }
+        float centerX = getX() + getWidth() / 2;
+        float centerY = getY() + getHeight() / 2;
+        // Lit from the root of the body's hierarchy, roots light themselves
+        int root = simulationIndex;
+        while (simulation.getParent(root) >= 0) {
+            root = simulation.getParent(root);
+        }
+        float lightX = 0;
+        float lightY = 0;
+        if (root != simulationIndex) {
+            lightX = simulation.getX(root) - centerX;
+            lightY = simulation.getY(root) - centerY;
+            float length = (float) Math.sqrt(lightX * lightX + lightY * lightY);
+            if (length > 0) {
+                lightX /= length;
+                lightY /= length;
+            }
+        }
+        renderer.draw(surface, centerX, centerY, touchRadius * getScaleX(), rotation, getColor().a * parentAlpha,
+            lightX, lightY);
+    }
 
-        if (currentOrbitAngleRadians > MathUtils.PI) {
-            toFront();
-        } else {
-            toBack();
+    /**
+     * Picks the smallest tier whose frames are at least as large as the body on screen. A tier is only left once the
+     * size is {@link Constants.Animation#TIER_HYSTERESIS} past its boundary, so zooming around a boundary doesn't
+     * flip between two sheets every frame.
+     */
+    private void updateTier() {
+        float projectedDiameter = getProjectedRadius() * 2;
+        float hysteresis = Constants.Animation.TIER_HYSTERESIS;
+        while (tier > 0 && projectedDiameter > animation.getFrameSize(tier) * (1 + hysteresis)) {
+            tier--;
+        }
+        while (tier < animation.getTierCount() - 1 && projectedDiameter < animation.getFrameSize(tier + 1) * (1 - hysteresis)) {
+            tier++;
         }
     }
 
-    @Override
-    public void draw(Batch batch, float parentAlpha) {
-        TextureRegion currentFrame = animation.getKeyFrame(stateTime, true);
-        batch.draw(currentFrame, getX(), getY(), getOriginX(), getOriginY(), getWidth(), getHeight(), getScaleX(), getScaleY(), getRotation());
+    /** Whether the scaled bounds of the body intersect the given camera frustum. */
+    public boolean isInFrustum(Frustum frustum) {
+        float halfWidth = getWidth() * getScaleX() / 2;
+        float halfHeight = getHeight() * getScaleY() / 2;
+        return frustum.boundsInFrustum(getX() + getWidth() / 2, getY() + getHeight() / 2, 0, halfWidth, halfHeight, 0);
+    }
+
+    public boolean isCulled() {
+        return culled;
+    }
+
+    public void setCulled(boolean culled) {
+        this.culled = culled;
+    }
+
+    /** Radius of the body in screen pixels at the current zoom. */
+    public float getProjectedRadius() {
+        Stage stage = getStage();
+        if (stage == null) {
+            return 0;
+        }
+        float zoom = stage.getCamera() instanceof OrthographicCamera ? ((OrthographicCamera) stage.getCamera()).zoom : 1f;
+        float pixelsPerUnit = stage.getViewport().getScreenWidth() / stage.getViewport().getWorldWidth();
+        return radius * getScaleX() / zoom * pixelsPerUnit;
     }
 
     public void addClickListener() {
@@ -129,9 +238,6 @@ public class CelestialBodyActor extends Actor {
     public Actor hit(float x, float y, boolean touchable) {
         if (!isTouchable() || !isVisible()) return null;
 
-        Vector2 touchPoint = new Vector2(x, y);
-        Vector2 center = new Vector2(getWidth() / 2, getHeight() / 2);
-
         if (touchableArea.contains(getX() + x, getY() + y)) {
             return this;
         } else {
@@ -139,6 +245,10 @@ public class CelestialBodyActor extends Actor {
         }
     }
 
+    public Circle getTouchableArea() {
+        return touchableArea;
+    }
+
     public boolean isHit(float x, float y) {
         return touchableArea.contains(x, y);
     }
@@ -176,15 +286,15 @@ public class CelestialBodyActor extends Actor {
     }
 
     public void setTargetEllipseAxisRatio(float targetEllipseAxisRatio) {
-        this.targetEllipseAxisRatio = targetEllipseAxisRatio;
+        simulation.setTargetAxisRatio(simulationIndex, targetEllipseAxisRatio);
     }
 
     public float getCurrentOrbitAngleRadians() {
-        return this.currentOrbitAngleRadians;
+        return simulation.getAngle(simulationIndex);
     }
 
     public void setCurrentOrbitAngleRadians(float targetOrbitAngle) {
-        this.currentOrbitAngleRadians = targetOrbitAngle;
+        simulation.setAngle(simulationIndex, targetOrbitAngle);
     }
 
     public float getOrbitSpeed() {
@@ -192,7 +302,17 @@ public class CelestialBodyActor extends Actor {
     }
 
     public void setOrbitSpeed(float orbitSpeed) {
-        this.orbitSpeedRadiansPerSecond = MathUtils.degreesToRadians * orbitSpeed;
+        simulation.setOrbitSpeed(simulationIndex, orbitSpeed);
+    }
+
+    /** Seconds per turn when drawn as a sphere, can be changed at any time without a jump. */
+    public void setRotationPeriod(float rotationPeriod) {
+        this.rotationPeriod = rotationPeriod;
+    }
+
+    /** Seconds ahead of the sheet's start that this body's animation begins. */
+    public void setAnimationPhase(float animationPhase) {
+        this.animationPhase = animationPhase;
     }
 
     public void setEnlargeMode(boolean enlargeMode) {
@@ -200,7 +320,11 @@ public class CelestialBodyActor extends Actor {
     }
 
     public void toggleOrbitDirection() {
-        clockwiseDirection = !clockwiseDirection;
+        simulation.toggleDirection(simulationIndex);
+    }
+
+    public int getSimulationIndex() {
+        return simulationIndex;
     }
 
     public String getRadius() {
@@ -0,0 +1,231 @@
+package com.kandclay.actors;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.kandclay.Constants;
+import com.kandclay.simulation.SpatialHashGrid;
+
+import java.util.Arrays;
+
+/**
+ * Group of celestial bodies that draws them back to front by {@link CelestialBodyActor#getDepth()} instead of by
+ * child order. The order is kept in a separate render list sorted once per frame, so the children array itself is
+ * never shuffled. At low time warps bodies move only a little between frames, so an insertion sort over the previous
+ * order is close to linear. Once it has moved bodies too often, after a batch is added or at high time warps where
+ * every depth is new each frame, the rest is left to a counting sort on quantized depth, and the insertion sort then
+ * only orders the bodies that share a bucket.
+ * <p>
+ * Picking goes through a {@link SpatialHashGrid} of the touchable areas, rebuilt after every act, so a pointer event
+ * only tests the bodies sharing its grid cell.
+ */
+public class CelestialBodyGroup extends Group {
+    /** Moves per body the insertion sort may make before falling back to the counting sort. */
+    private static final int INSERTION_MOVES_PER_BODY = 8;
+
+    private final Array<CelestialBodyActor> renderList = new Array<CelestialBodyActor>(true, 16, CelestialBodyActor.class);
+    private float[] depths = new float[16];
+    // Scratch space of the counting sort
+    private CelestialBodyActor[] sortedBodies = new CelestialBodyActor[16];
+    private float[] sortedDepths = new float[16];
+    private int[] bucketStarts = new int[17];
+    private boolean renderListDirty = false;
+    private final SpatialHashGrid pickingGrid = new SpatialHashGrid(Constants.Picking.CELL_SIZE_PIXELS, Constants.Picking.BUCKET_COUNT);
+    // Bodies in the order they were added to the grid, the grid reports indices into this array
+    private final Array<CelestialBodyActor> indexedBodies = new Array<CelestialBodyActor>(true, 16, CelestialBodyActor.class);
+    private final IntArray pickingResult = new IntArray();
+    private SphereRenderer sphereRenderer;
+
+    /** Marks the render list for a rebuild, so adding many bodies in a row stays linear. */
+    @Override
+    protected void childrenChanged() {
+        super.childrenChanged();
+        renderListDirty = true;
+    }
+
+    private void updateRenderList() {
+        if (!renderListDirty) {
+            return;
+        }
+        renderListDirty = false;
+        renderList.clear();
+        SnapshotArray<Actor> children = getChildren();
+        for (int i = 0; i < children.size; i++) {
+            Actor child = children.get(i);
+            if (child instanceof CelestialBodyActor) {
+                renderList.add((CelestialBodyActor) child);
+            }
+        }
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        updateRenderList();
+        updatePickingGrid();
+    }
+
+    private void updatePickingGrid() {
+        pickingGrid.clear();
+        indexedBodies.clear();
+        CelestialBodyActor[] bodies = renderList.items;
+        for (int i = 0, n = renderList.size; i < n; i++) {
+            CelestialBodyActor body = bodies[i];
+            if (!body.isTouchable() || !body.isVisible()) {
+                continue;
+            }
+            Circle area = body.getTouchableArea();
+            pickingGrid.add(area.x, area.y, area.radius);
+            indexedBodies.add(body);
+        }
+        pickingGrid.build();
+    }
+
+    /** Stable sort of the render list by depth, farthest body first. */
+    public void sortByDepth() {
+        updateRenderList();
+        int size = renderList.size;
+        if (depths.length < size) {
+            int capacity = Math.max(size, depths.length * 2);
+            depths = new float[capacity];
+            sortedBodies = new CelestialBodyActor[capacity];
+            sortedDepths = new float[capacity];
+        }
+        CelestialBodyActor[] bodies = renderList.items;
+        for (int i = 0; i < size; i++) {
+            depths[i] = bodies[i].getDepth();
+        }
+        if (!insertionSort(bodies, size, (long) INSERTION_MOVES_PER_BODY * size)) {
+            countingSort(bodies, size);
+            insertionSort(bodies, size, Long.MAX_VALUE);
+        }
+    }
+
+    /** Sorts until done or until {@code maxMoves} bodies have been moved, returns whether it finished. */
+    private boolean insertionSort(CelestialBodyActor[] bodies, int size, long maxMoves) {
+        long moves = 0;
+        for (int i = 1; i < size; i++) {
+            float depth = depths[i];
+            CelestialBodyActor body = bodies[i];
+            int j = i - 1;
+            while (j >= 0 && depths[j] > depth) {
+                depths[j + 1] = depths[j];
+                bodies[j + 1] = bodies[j];
+                j--;
+            }
+            depths[j + 1] = depth;
+            bodies[j + 1] = body;
+            moves += i - 1 - j;
+            if (moves > maxMoves) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Stable counting sort into one bucket per body between the smallest depth and the largest. */
+    private void countingSort(CelestialBodyActor[] bodies, int size) {
+        float min = depths[0];
+        float max = depths[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, depths[i]);
+            max = Math.max(max, depths[i]);
+        }
+        if (!(max > min)) {
+            return;
+        }
+        int bucketCount = size;
+        if (bucketStarts.length < bucketCount + 1) {
+            bucketStarts = new int[Math.max(bucketCount + 1, bucketStarts.length * 2)];
+        }
+        Arrays.fill(bucketStarts, 0, bucketCount + 1, 0);
+        float scale = (bucketCount - 1) / (max - min);
+        for (int i = 0; i < size; i++) {
+            bucketStarts[bucket(depths[i], min, scale, bucketCount) + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        for (int i = 0; i < size; i++) {
+            int k = bucketStarts[bucket(depths[i], min, scale, bucketCount)]++;
+            sortedBodies[k] = bodies[i];
+            sortedDepths[k] = depths[i];
+        }
+        System.arraycopy(sortedBodies, 0, bodies, 0, size);
+        System.arraycopy(sortedDepths, 0, depths, 0, size);
+        // The scratch array shouldn't keep removed bodies alive
+        Arrays.fill(sortedBodies, 0, size, null);
+    }
+
+    private static int bucket(float depth, float min, float scale, int bucketCount) {
+        return Math.min((int) ((depth - min) * scale), bucketCount - 1);
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        sortByDepth();
+        super.draw(batch, parentAlpha);
+    }
+
+    @Override
+    protected void drawChildren(Batch batch, float parentAlpha) {
+        parentAlpha *= getColor().a;
+        CelestialBodyActor[] bodies = renderList.items;
+        if (sphereRenderer != null) {
+            batch.end();
+            sphereRenderer.begin(batch.getProjectionMatrix(), batch.getTransformMatrix());
+            for (int i = 0, n = renderList.size; i < n; i++) {
+                CelestialBodyActor body = bodies[i];
+                if (body.isVisible()) {
+                    body.drawSphere(sphereRenderer, parentAlpha);
+                }
+            }
+            sphereRenderer.end();
+            batch.begin();
+            return;
+        }
+        for (int i = 0, n = renderList.size; i < n; i++) {
+            CelestialBodyActor body = bodies[i];
+            if (body.isVisible()) {
+                body.draw(batch, parentAlpha);
+            }
+        }
+    }
+
+    /** Of all bodies under the point, returns the one drawn on top. */
+    @Override
+    public Actor hit(float x, float y, boolean touchable) {
+        if (touchable && getTouchable() == Touchable.disabled) return null;
+        if (!isVisible()) return null;
+        pickingGrid.queryPoint(x, y, pickingResult);
+        CelestialBodyActor front = null;
+        for (int k = 0; k < pickingResult.size; k++) {
+            CelestialBodyActor body = indexedBodies.items[pickingResult.get(k)];
+            if (front == null || body.getDepth() > front.getDepth()) {
+                front = body;
+            }
+        }
+        return front;
+    }
+
+    /** Body whose touchable area is closest to the point, or null if none is within {@code maxDistance}. */
+    public CelestialBodyActor findNearest(float x, float y, float maxDistance) {
+        int nearest = pickingGrid.queryNearest(x, y, maxDistance);
+        return nearest < 0 ? null : indexedBodies.items[nearest];
+    }
+
+    /** Draws the bodies with the given renderer instead of their sprite sheets, null to go back to the sheets. */
+    public void setSphereRenderer(SphereRenderer sphereRenderer) {
+        this.sphereRenderer = sphereRenderer;
+    }
+
+    public Array<CelestialBodyActor> getRenderList() {
+        updateRenderList();
+        return renderList;
+    }
+}
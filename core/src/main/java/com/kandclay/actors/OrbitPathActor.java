@@ -0,0 +1,218 @@
+package com.kandclay.actors;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.ShortArray;
+import com.kandclay.Constants;
+import com.kandclay.simulation.OrbitSimulation;
+
+/**
+ * Draws the orbit of every body of an {@link OrbitSimulation} from cached line meshes. Vertices hold the orbit's
+ * points as offsets from the parent before the tilt, so parents moving and the orbital plane angle changing only
+ * update uniforms. Orbits are grouped by parent, and each mesh holds the orbits of up to {@link #PARENT_SLOTS}
+ * parents, so thousands of orbits take a few draw calls.
+ * <p>
+ * The meshes are rebuilt when the orbits change shape, and when the zoom crosses a power of two, as the number of
+ * segments of each orbit follows its size on screen.
+ */
+public class OrbitPathActor extends Actor implements Disposable {
+    /** Size of the parent array in the shader, well within the uniforms GLES 2 guarantees. */
+    private static final int PARENT_SLOTS = 64;
+    private static final int FLOATS_PER_VERTEX = 3;
+    // Indices are shorts
+    private static final int MAX_VERTICES = 65536;
+
+    private final OrbitSimulation simulation;
+    private final Color color;
+    private final ShaderProgram shader;
+    private final Array<Chunk> chunks = new Array<Chunk>();
+    private final FloatArray vertices = new FloatArray();
+    private final ShortArray indices = new ShortArray();
+    private final float[] point = new float[2];
+    private int builtShapeVersion = -1;
+    private int builtBodyCount = -1;
+    private int builtZoomLevel = Integer.MIN_VALUE;
+
+    /** Orbits of up to {@link #PARENT_SLOTS} parents in one mesh, a vertex refers to its parent by slot. */
+    private static class Chunk implements Disposable {
+        final int[] parents = new int[PARENT_SLOTS];
+        // One child of each parent, whose axis ratio stands for all of them as they share the same target
+        final int[] axisBodies = new int[PARENT_SLOTS];
+        final float[] uniforms = new float[PARENT_SLOTS * 4];
+        int parentCount;
+        Mesh mesh;
+
+        @Override
+        public void dispose() {
+            if (mesh != null) {
+                mesh.dispose();
+            }
+        }
+    }
+
+    public OrbitPathActor(OrbitSimulation simulation, Color color) {
+        this.simulation = simulation;
+        this.color = new Color(color);
+        shader = new ShaderProgram(Gdx.files.internal("shaders/orbit.vert"), Gdx.files.internal("shaders/orbit.frag"));
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("Orbit shader failed to compile: " + shader.getLog());
+        }
+        setTouchable(Touchable.disabled);
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        Stage stage = getStage();
+        // Under gravity the bodies leave their Kepler orbits
+        if (stage == null || simulation.isGravityEnabled()) {
+            return;
+        }
+        float zoom = stage.getCamera() instanceof OrthographicCamera ? ((OrthographicCamera) stage.getCamera()).zoom : 1f;
+        float pixelsPerUnit = stage.getViewport().getScreenWidth() / stage.getViewport().getWorldWidth() / zoom;
+        if (!(pixelsPerUnit > 0)) {
+            // Minimised
+            return;
+        }
+        int zoomLevel = MathUtils.floor((float) (Math.log(pixelsPerUnit) / Math.log(2)));
+        if (zoomLevel != builtZoomLevel || simulation.getShapeVersion() != builtShapeVersion
+            || simulation.size() != builtBodyCount) {
+            rebuild(zoomLevel);
+        }
+        if (chunks.size == 0) {
+            return;
+        }
+
+        batch.end();
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", batch.getProjectionMatrix());
+        shader.setUniformf("u_color", color.r, color.g, color.b, color.a * parentAlpha);
+        for (Chunk chunk : chunks) {
+            for (int slot = 0; slot < chunk.parentCount; slot++) {
+                int parent = chunk.parents[slot];
+                chunk.uniforms[slot * 4] = simulation.getX(parent);
+                chunk.uniforms[slot * 4 + 1] = simulation.getY(parent);
+                chunk.uniforms[slot * 4 + 2] = simulation.getAxisRatio(chunk.axisBodies[slot]);
+            }
+            shader.setUniform4fv("u_parents", chunk.uniforms, 0, chunk.parentCount * 4);
+            chunk.mesh.render(shader, GL20.GL_LINES);
+        }
+        batch.begin();
+    }
+
+    /** Regenerates the meshes for the current orbits, with segments sized for {@code 2^zoomLevel} pixels per unit. */
+    private void rebuild(int zoomLevel) {
+        builtZoomLevel = zoomLevel;
+        builtShapeVersion = simulation.getShapeVersion();
+        builtBodyCount = simulation.size();
+        for (Chunk chunk : chunks) {
+            chunk.dispose();
+        }
+        chunks.clear();
+        float pixelsPerUnit = (float) Math.pow(2, zoomLevel);
+
+        // Counting sort of the orbiting bodies by parent
+        int size = simulation.size();
+        int[] starts = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            if (simulation.hasOrbit(i)) {
+                starts[simulation.getParent(i) + 1]++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            starts[i + 1] += starts[i];
+        }
+        int[] byParent = new int[starts[size]];
+        int[] next = new int[size];
+        System.arraycopy(starts, 0, next, 0, size);
+        for (int i = 0; i < size; i++) {
+            if (simulation.hasOrbit(i)) {
+                byParent[next[simulation.getParent(i)]++] = i;
+            }
+        }
+
+        Chunk chunk = new Chunk();
+        vertices.clear();
+        indices.clear();
+        for (int parent = 0; parent < size; parent++) {
+            int slot = -1;
+            for (int k = starts[parent]; k < starts[parent + 1]; k++) {
+                int body = byParent[k];
+                int segments = segmentsFor(simulation.getSemiMajorAxis(body) * pixelsPerUnit);
+                if (segments == 0) {
+                    continue;
+                }
+                if (vertices.size / FLOATS_PER_VERTEX + segments > MAX_VERTICES
+                    || (slot < 0 && chunk.parentCount == PARENT_SLOTS)) {
+                    finishChunk(chunk);
+                    chunk = new Chunk();
+                    slot = -1;
+                }
+                if (slot < 0) {
+                    slot = chunk.parentCount++;
+                    chunk.parents[slot] = parent;
+                    chunk.axisBodies[slot] = body;
+                }
+                addOrbit(body, slot, segments);
+            }
+        }
+        finishChunk(chunk);
+    }
+
+    /** Segments for an orbit of the given radius on screen, a power of two so small zoom changes keep the count. */
+    private static int segmentsFor(float radiusPixels) {
+        if (radiusPixels < Constants.OrbitPath.MIN_RADIUS_PIXELS) {
+            return 0;
+        }
+        int segments = MathUtils.nextPowerOfTwo((int) (MathUtils.PI2 * radiusPixels / Constants.OrbitPath.PIXELS_PER_SEGMENT));
+        return MathUtils.clamp(segments, Constants.OrbitPath.MIN_SEGMENTS, Constants.OrbitPath.MAX_SEGMENTS);
+    }
+
+    private void addOrbit(int body, int slot, int segments) {
+        int first = vertices.size / FLOATS_PER_VERTEX;
+        for (int s = 0; s < segments; s++) {
+            simulation.getOrbitPoint(body, MathUtils.PI2 * s / segments, point);
+            vertices.add(point[0], point[1], slot);
+            indices.add((short) (first + s));
+            indices.add((short) (first + (s + 1) % segments));
+        }
+    }
+
+    private void finishChunk(Chunk chunk) {
+        if (chunk.parentCount == 0) {
+            return;
+        }
+        int vertexCount = vertices.size / FLOATS_PER_VERTEX;
+        chunk.mesh = new Mesh(true, vertexCount, indices.size,
+            new VertexAttribute(VertexAttributes.Usage.Position, FLOATS_PER_VERTEX, ShaderProgram.POSITION_ATTRIBUTE));
+        chunk.mesh.setVertices(vertices.items, 0, vertices.size);
+        chunk.mesh.setIndices(indices.items, 0, indices.size);
+        chunks.add(chunk);
+        vertices.clear();
+        indices.clear();
+    }
+
+    @Override
+    public void dispose() {
+        for (Chunk chunk : chunks) {
+            chunk.dispose();
+        }
+        chunks.clear();
+        shader.dispose();
+    }
+}
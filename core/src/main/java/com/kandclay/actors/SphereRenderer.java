@@ -0,0 +1,160 @@
+package com.kandclay.actors;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.kandclay.Constants;
+
+/**
+ * Draws bodies as spheres instead of sprite sheet frames: one quad per body, onto which the fragment shader projects a
+ * small equirectangular surface from the atlas, turned by the body's rotation and lit from the direction of its star.
+ * The rotation is a vertex attribute, so it can change at any speed without baking new sheets. Quads are batched like
+ * a {@code SpriteBatch}, bodies whose surfaces share an atlas page are drawn in one call.
+ */
+public class SphereRenderer implements Disposable {
+    private static final int FLOATS_PER_VERTEX = 12;
+    private static final int FLOATS_PER_BODY = FLOATS_PER_VERTEX * 4;
+
+    private final TextureAtlas atlas;
+    private final ObjectMap<String, TextureRegion> surfaces = new ObjectMap<String, TextureRegion>();
+    private final Mesh mesh;
+    private final ShaderProgram shader;
+    private final float[] vertices;
+    private final int maxBodies;
+    private final Matrix4 combined = new Matrix4();
+    private Texture texture;
+    private int count = 0;
+    /** Draw calls since creation, like {@code SpriteBatch.totalRenderCalls}. */
+    public int totalRenderCalls = 0;
+
+    public SphereRenderer(TextureAtlas atlas) {
+        this(atlas, Constants.Surface.MAX_BODIES_PER_FLUSH);
+    }
+
+    public SphereRenderer(TextureAtlas atlas, int maxBodies) {
+        if (maxBodies > 16383) {
+            throw new IllegalArgumentException("Can't draw more than 16383 bodies per call, indices are shorts: " + maxBodies);
+        }
+        this.atlas = atlas;
+        this.maxBodies = maxBodies;
+        vertices = new float[maxBodies * FLOATS_PER_BODY];
+        mesh = new Mesh(false, maxBodies * 4, maxBodies * 6,
+            new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+            new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"),
+            new VertexAttribute(VertexAttributes.Usage.Generic, 4, "a_region"),
+            new VertexAttribute(VertexAttributes.Usage.Generic, 2, "a_shade"),
+            new VertexAttribute(VertexAttributes.Usage.Generic, 2, "a_light"));
+        short[] indices = new short[maxBodies * 6];
+        for (int i = 0, vertex = 0; i < indices.length; i += 6, vertex += 4) {
+            indices[i] = (short) vertex;
+            indices[i + 1] = (short) (vertex + 1);
+            indices[i + 2] = (short) (vertex + 2);
+            indices[i + 3] = (short) (vertex + 2);
+            indices[i + 4] = (short) (vertex + 3);
+            indices[i + 5] = (short) vertex;
+        }
+        mesh.setIndices(indices);
+
+        shader = new ShaderProgram(Gdx.files.internal("shaders/sphere.vert"), Gdx.files.internal("shaders/sphere.frag"));
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("Sphere shader failed to compile: " + shader.getLog());
+        }
+    }
+
+    /** The atlas region wrapped around bodies called {@code name}, see {@link Constants.Surface#of(String)}. */
+    public TextureRegion findSurface(String name) {
+        String regionName = Constants.Surface.of(name);
+        TextureRegion surface = surfaces.get(regionName);
+        if (surface == null) {
+            surface = atlas.findRegion(regionName);
+            if (surface == null) {
+                throw new GdxRuntimeException("Surface " + regionName + " not found in the atlas");
+            }
+            surfaces.put(regionName, surface);
+        }
+        return surface;
+    }
+
+    public void begin(Matrix4 projection, Matrix4 transform) {
+        combined.set(projection).mul(transform);
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", combined);
+        shader.setUniformf("u_ambient", Constants.Surface.AMBIENT);
+        shader.setUniformi("u_texture", 0);
+        count = 0;
+    }
+
+    /**
+     * Queues a sphere of the given radius. {@code rotation} is in turns, ({@code lightX}, {@code lightY}) points
+     * towards the light, or is zero for a body that gives off its own.
+     */
+    public void draw(TextureRegion surface, float centerX, float centerY, float radius, float rotation, float alpha,
+                     float lightX, float lightY) {
+        if (surface.getTexture() != texture || count == maxBodies) {
+            flush();
+            texture = surface.getTexture();
+        }
+        float u = surface.getU();
+        float v = surface.getV();
+        float width = surface.getU2() - u;
+        float height = surface.getV2() - v;
+        int offset = count * FLOATS_PER_BODY;
+        offset = vertex(offset, centerX - radius, centerY - radius, -1, -1, u, v, width, height, rotation, alpha, lightX, lightY);
+        offset = vertex(offset, centerX + radius, centerY - radius, 1, -1, u, v, width, height, rotation, alpha, lightX, lightY);
+        offset = vertex(offset, centerX + radius, centerY + radius, 1, 1, u, v, width, height, rotation, alpha, lightX, lightY);
+        vertex(offset, centerX - radius, centerY + radius, -1, 1, u, v, width, height, rotation, alpha, lightX, lightY);
+        count++;
+    }
+
+    private int vertex(int offset, float x, float y, float sphereX, float sphereY, float u, float v, float width,
+                       float height, float rotation, float alpha, float lightX, float lightY) {
+        float[] vertices = this.vertices;
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = sphereX;
+        vertices[offset + 3] = sphereY;
+        vertices[offset + 4] = u;
+        vertices[offset + 5] = v;
+        vertices[offset + 6] = width;
+        vertices[offset + 7] = height;
+        vertices[offset + 8] = rotation;
+        vertices[offset + 9] = alpha;
+        vertices[offset + 10] = lightX;
+        vertices[offset + 11] = lightY;
+        return offset + FLOATS_PER_VERTEX;
+    }
+
+    public void end() {
+        flush();
+        texture = null;
+    }
+
+    private void flush() {
+        if (count == 0) {
+            return;
+        }
+        texture.bind(0);
+        mesh.setVertices(vertices, 0, count * FLOATS_PER_BODY);
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, count * 6);
+        totalRenderCalls++;
+        count = 0;
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+}
@@ -2,44 +2,54 @@
 package com.kandclay.managers;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.kandclay.Constants;
 import com.kandclay.Main;
+import com.kandclay.actors.BeltActor;
 import com.kandclay.actors.CelestialBodyActor;
 import com.kandclay.managers.MyAssetManager;
+import com.kandclay.simulation.BeltField;
+import com.kandclay.simulation.OrbitSimulation;
+import com.kandclay.simulation.OrbitalElements;
+import com.kandclay.simulation.SyntheticSystem;
 
 public class CelestialBodyFactory {
     private Main game;
     private final MyAssetManager assetManager;
     private final Group planetGroup;
     private final Array<CelestialBodyActor> celestialBodies;
+    private final OrbitSimulation simulation;
+    private final ObjectMap<String, SpriteSheetAnimation> spriteSheets = new ObjectMap<String, SpriteSheetAnimation>();
 
-    public CelestialBodyFactory(MyAssetManager assetManager, Group planetGroup, Array<CelestialBodyActor> celestialBodies, Main game) {
+    public CelestialBodyFactory(MyAssetManager assetManager, Group planetGroup, Array<CelestialBodyActor> celestialBodies,
+                                OrbitSimulation simulation, Main game) {
         this.assetManager = assetManager;
         this.planetGroup = planetGroup;
         this.celestialBodies = celestialBodies;
+        this.simulation = simulation;
         this.game = game;
     }
 
     public CelestialBodyActor createSun() {
         float sunRadius = Constants.Radius.SUN_PIXELS;
-        Animation<TextureRegion> sunAnimation = createAnimationFromAssetManager("sun");
+        SpriteSheetAnimation sunAnimation = getSpriteSheet("sun");
 
         float sunX = (Gdx.graphics.getWidth() / 2f) - sunRadius;
         float sunY = (Gdx.graphics.getHeight() / 2f) - sunRadius;
 
+        int simulationIndex = simulation.addRoot(sunX + sunRadius, sunY + sunRadius);
+        simulation.setGravitationalParameter(simulationIndex, Constants.Gravity.STAR_PARAMETER);
         CelestialBodyActor sun = new CelestialBodyActor("sun", sunRadius, sunRadius / 2, sunAnimation,
-            null, 0, 0);
+            simulation, simulationIndex, 0);
 
         sun.addClickListener();
         sun.setPosition(sunX, sunY);
         planetGroup.addActor(sun);
-        sun.setZIndex(2);
         celestialBodies.add(sun);
 
         return sun;
@@ -60,14 +70,21 @@ public class CelestialBodyFactory {
         float planetX = orbitedBodyX + distanceToOrbitedBody;
         float planetY = orbitedBodyY - radiusPixels;
 
-        Animation<TextureRegion> animation = createAnimationFromAssetManager(texturePathSuffix);
+        SpriteSheetAnimation animation = getSpriteSheet(texturePathSuffix);
 
         float adjustedRadius = radiusPixels;
 
         if (texturePathSuffix.equals("saturn")) adjustedRadius = (radiusPixels / 3f);
 
+        int simulationIndex = simulation.addBody(orbitedBody.getSimulationIndex(), distanceToOrbitedBody, orbitSpeed);
+        simulation.setGravitationalParameter(simulationIndex,
+            Constants.Mass.of(texturePathSuffix) * Constants.Gravity.STAR_PARAMETER);
+        OrbitalElements elements = Constants.Elements.of(texturePathSuffix);
+        if (elements != null) {
+            simulation.setElements(simulationIndex, elements);
+        }
         CelestialBodyActor planet = new CelestialBodyActor(texturePathSuffix, radiusPixels, adjustedRadius, animation,
-            orbitedBody, distanceToOrbitedBody, orbitSpeed);
+            simulation, simulationIndex, orbitSpeed);
 
         planet.setPosition(planetX, planetY);
         planet.addClickListener();
@@ -77,23 +94,93 @@ public class CelestialBodyFactory {
         return planet;
     }
 
-    private Animation<TextureRegion> createAnimationFromAssetManager(String regionName) {
-        String name = "sprites/anim/" + regionName + ".png";
-        Texture texture = assetManager.get(name, Texture.class);
-
-        int frameWidth = texture.getWidth() / Constants.Animation.NUM_COLS;
-        int frameHeight = texture.getHeight() / Constants.Animation.NUM_ROWS;
+    /**
+     * Adds a body that isn't on any orbit, at a position and velocity in world pixels. It moves only under gravity, see
+     * {@link OrbitSimulation#setGravityEnabled(boolean)}. With a zero mass it is pulled without pulling anything.
+     */
+    public CelestialBodyActor createFreeBody(String name, float radius, float x, float y, float velocityX, float velocityY,
+                                             double massFraction) {
+        int simulationIndex = simulation.addFreeBody(x, y, velocityX, velocityY,
+            massFraction * Constants.Gravity.STAR_PARAMETER);
+        CelestialBodyActor body = new CelestialBodyActor(name, radius, radius, getSpriteSheet("moon"), simulation,
+            simulationIndex, 0);
+        body.setPosition(x - radius, y - radius);
+        body.addClickListener();
+        planetGroup.addActor(body);
+        celestialBodies.add(body);
+        return body;
+    }
 
-        TextureRegion[][] tmpFrames = TextureRegion.split(texture, frameWidth, frameHeight);
-        TextureRegion[] animationFrames = new TextureRegion[Constants.Animation.NUM_ROWS * Constants.Animation.NUM_COLS];
+    /**
+     * Throws a massless comet towards the star from {@link Constants.Gravity#COMET_START_DISTANCE_PIXELS} in the
+     * direction {@code angle}, aimed so that it passes the star at {@code perihelion}.
+     */
+    public CelestialBodyActor createComet(CelestialBodyActor star, float angle, float perihelion) {
+        float starX = simulation.getX(star.getSimulationIndex());
+        float starY = simulation.getY(star.getSimulationIndex());
+        double mu = Constants.Gravity.STAR_PARAMETER;
+        double distance = Constants.Gravity.COMET_START_DISTANCE_PIXELS;
+
+        // Energy and angular momentum of the orbit, from the start speed and the perihelion
+        double speed = Constants.Gravity.COMET_SPEED_FRACTION * Math.sqrt(2 * mu / distance);
+        double energy = speed * speed / 2 - mu / distance;
+        double perihelionSpeed = Math.sqrt(2 * (energy + mu / perihelion));
+        double tangentialSpeed = perihelion * perihelionSpeed / distance;
+        double radialSpeed = -Math.sqrt(Math.max(0, speed * speed - tangentialSpeed * tangentialSpeed));
+
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        float velocityX = (float) (radialSpeed * cos - tangentialSpeed * sin);
+        float velocityY = (float) (radialSpeed * sin + tangentialSpeed * cos);
+        return createFreeBody("comet", Constants.Gravity.COMET_RADIUS_PIXELS, starX + (float) distance * cos,
+            starY + (float) distance * sin, velocityX, velocityY, 0);
+    }
 
-        int index = 0;
-        for (int i = 0; i < Constants.Animation.NUM_ROWS; i++) {
-            for (int j = 0; j < Constants.Animation.NUM_COLS; j++) {
-                animationFrames[index++] = tmpFrames[i][j];
-            }
+    /**
+     * Adds a generated star with {@code bodyCount} bodies over {@code depth} levels below it, see
+     * {@link SyntheticSystem}. Meant for soak runs, every body uses the moon sheet.
+     */
+    public void createSyntheticSystem(int bodyCount, int depth, long seed) {
+        int first = simulation.size();
+        SyntheticSystem.populate(simulation, bodyCount, depth, seed);
+        SpriteSheetAnimation animation = getSpriteSheet("moon");
+        // Bodies share the sheet but not its timing, each starts somewhere else in the rotation
+        RandomXS128 random = new RandomXS128(seed);
+        float cycle = Constants.Animation.NUM_ROWS * Constants.Animation.NUM_COLS * Constants.Animation.FRAME_DURATION;
+        for (int i = first; i < simulation.size(); i++) {
+            boolean root = simulation.getParent(i) < 0;
+            float radius = root ? Constants.Radius.SUN_PIXELS : Constants.Radius.MOON_PIXELS * (1 + 2f / simulation.getDepth(i));
+            CelestialBodyActor body = new CelestialBodyActor(root ? "sun" : "body" + i, radius, radius, animation,
+                simulation, i, 0);
+            body.setAnimationPhase(random.nextFloat() * cycle);
+            body.setPosition(simulation.getX(i) - radius, simulation.getY(i) - radius);
+            body.addClickListener();
+            planetGroup.addActor(body);
+            celestialBodies.add(body);
         }
+    }
+
+    /** Creates a belt of small bodies around the sun, drawn as a single mesh instead of one actor per body. */
+    public BeltActor createBelt(float innerRadius, float outerRadius, int count, float innerOrbitSpeed, float particleSize,
+                                Color color) {
+        CelestialBodyActor sun = celestialBodies.get(Constants.CelestialBody.SUN.ordinal());
+        BeltField belt = new BeltField(sun.getSimulationIndex(), innerRadius, outerRadius, count, innerOrbitSpeed,
+            particleSize, simulation.getBelts().size);
+        simulation.addBelt(belt);
+        return new BeltActor(belt, simulation, color);
+    }
 
-        return new Animation<TextureRegion>(Constants.Animation.FRAME_DURATION, animationFrames);
+    /**
+     * Bodies using the same sheet share one {@link SpriteSheetAnimation}, so the cache tracks each sheet once and the
+     * frames of a tier are built only when some body first draws it.
+     */
+    private SpriteSheetAnimation getSpriteSheet(String regionName) {
+        SpriteSheetAnimation spriteSheet = spriteSheets.get(regionName);
+        if (spriteSheet == null) {
+            spriteSheet = new SpriteSheetAnimation(assetManager.getTextureCache(), assetManager.getAtlas(),
+                assetManager.getDecoderThread(), assetManager.getSpriteTiers().getTiers(regionName));
+            spriteSheets.put(regionName, spriteSheet);
+        }
+        return spriteSheet;
     }
 }
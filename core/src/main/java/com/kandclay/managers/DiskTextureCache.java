@@ -0,0 +1,248 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Keeps decoded textures in a local directory, so later starts map the pixels instead of inflating the PNGs again. An
+ * entry holds the SHA-1 of the source file it was decoded from and is only used while the source still has that
+ * hash, it is rewritten otherwise. The whole directory is cleared when {@code assets.txt} changes, which drops the
+ * entries of assets that were removed.
+ * <p>
+ * A hit is uploaded straight from the memory mapped file, so a warm start reads each source once to hash it and then
+ * the raw pixels, with no decoding. Entries are written under a temporary name and renamed, so a crash can't leave a
+ * partial entry behind.
+ */
+public class DiskTextureCache {
+    /** "TEX1" */
+    private static final int MAGIC = 0x54455831;
+    private static final String ASSETS_LIST = "assets.txt";
+    private static final String ASSETS_HASH = "assets.sha1";
+
+    private final File directory;
+
+    public DiskTextureCache(FileHandle directory) {
+        this.directory = directory.file();
+        FileHandle assetsList = Gdx.files.internal(ASSETS_LIST);
+        byte[] assetsHash = hash(assetsList.exists() ? assetsList.readBytes() : new byte[0]);
+        FileHandle assetsHashFile = directory.child(ASSETS_HASH);
+        if (!assetsHashFile.exists() || !Arrays.equals(assetsHashFile.readBytes(), assetsHash)) {
+            directory.deleteDirectory();
+            directory.mkdirs();
+            assetsHashFile.writeBytes(assetsHash, false);
+        }
+    }
+
+    /**
+     * Returns the texture data of the file from the cache, decoding the file and adding it first on a miss. Only
+     * images without mipmaps are cached, other files return null and are left to the usual texture data.
+     */
+    public TextureData load(String fileName, FileHandle file, Pixmap.Format format, boolean genMipMaps) {
+        String extension = file.extension().toLowerCase();
+        if (genMipMaps || !(extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg")
+            || extension.equals("bmp"))) {
+            return null;
+        }
+        byte[] source = file.readBytes();
+        byte[] sourceHash = hash(source);
+        File entry = new File(directory, fileName.replace('/', '_').replace('\\', '_')
+            + (format == null ? "" : "-" + format.name()) + ".tex");
+
+        MappedTextureData cached = MappedTextureData.open(entry, sourceHash);
+        if (cached != null) {
+            return cached;
+        }
+
+        Pixmap pixmap = new Pixmap(source, 0, source.length);
+        if (format != null && pixmap.getFormat() != format) {
+            Pixmap converted = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), format);
+            converted.setBlending(Pixmap.Blending.None);
+            converted.drawPixmap(pixmap, 0, 0);
+            pixmap.dispose();
+            pixmap = converted;
+        }
+        try {
+            write(entry, sourceHash, pixmap);
+        } catch (IOException e) {
+            // Loads without the cache, e.g. on a read-only or full disk
+            Gdx.app.error("DiskTextureCache", "Could not write " + entry, e);
+            return new FileTextureData(file, pixmap, pixmap.getFormat(), false);
+        }
+        pixmap.dispose();
+        cached = MappedTextureData.open(entry, sourceHash);
+        if (cached == null) {
+            throw new GdxRuntimeException("Could not read back " + entry);
+        }
+        return cached;
+    }
+
+    private static void write(File entry, byte[] sourceHash, Pixmap pixmap) throws IOException {
+        File temporary = new File(entry.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.write(sourceHash);
+            header.writeUTF(pixmap.getFormat().name());
+            header.writeInt(pixmap.getWidth());
+            header.writeInt(pixmap.getHeight());
+            header.flush();
+            ByteBuffer pixels = pixmap.getPixels().duplicate();
+            pixels.clear();
+            FileChannel channel = file.getChannel();
+            while (pixels.hasRemaining()) {
+                channel.write(pixels);
+            }
+        }
+        // Renaming over an existing file fails on some platforms
+        if (entry.exists() && !entry.delete() || !temporary.renameTo(entry)) {
+            temporary.delete();
+            throw new IOException("Could not replace " + entry);
+        }
+    }
+
+    private static byte[] hash(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+
+    /**
+     * Pixels of a cache entry, mapped when the data is prepared and uploaded from the mapping. The entry stays on disk,
+     * so like file backed data it can be prepared again when the GL context is lost.
+     */
+    static class MappedTextureData implements TextureData {
+        private final File entry;
+        private final long pixelsOffset;
+        private final Pixmap.Format format;
+        private final int width;
+        private final int height;
+        private ByteBuffer pixels;
+
+        private MappedTextureData(File entry, long pixelsOffset, Pixmap.Format format, int width, int height) {
+            this.entry = entry;
+            this.pixelsOffset = pixelsOffset;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+        }
+
+        /** Reads the header of the entry and maps it, or returns null if it's missing, from another source or cut short. */
+        static MappedTextureData open(File entry, byte[] sourceHash) {
+            if (!entry.exists()) {
+                return null;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(entry, "r")) {
+                if (file.readInt() != MAGIC) {
+                    return null;
+                }
+                byte[] entryHash = new byte[sourceHash.length];
+                file.readFully(entryHash);
+                if (!Arrays.equals(entryHash, sourceHash)) {
+                    return null;
+                }
+                Pixmap.Format format = Pixmap.Format.valueOf(file.readUTF());
+                int width = file.readInt();
+                int height = file.readInt();
+                long pixelsOffset = file.getFilePointer();
+                if (file.length() - pixelsOffset != (long) width * height * TextureCache.bytesPerPixel(format)) {
+                    return null;
+                }
+                MappedTextureData data = new MappedTextureData(entry, pixelsOffset, format, width, height);
+                data.prepare();
+                return data;
+            } catch (IOException | IllegalArgumentException e) {
+                // Unreadable or from another version, it gets rewritten
+                return null;
+            }
+        }
+
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Custom;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return pixels != null;
+        }
+
+        @Override
+        public void prepare() {
+            if (pixels != null) {
+                throw new GdxRuntimeException("Already prepared");
+            }
+            try (RandomAccessFile file = new RandomAccessFile(entry, "r")) {
+                // The mapping stays valid after the file is closed
+                pixels = file.getChannel().map(FileChannel.MapMode.READ_ONLY, pixelsOffset,
+                    file.length() - pixelsOffset);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Could not map " + entry, e);
+            }
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            throw new GdxRuntimeException("Mapped texture data is uploaded directly, there is no pixmap");
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return false;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+            if (pixels == null) {
+                throw new GdxRuntimeException("Call prepare() before uploading");
+            }
+            int glFormat = Pixmap.Format.toGlFormat(format);
+            Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+            Gdx.gl.glTexImage2D(target, 0, glFormat, width, height, 0, glFormat, Pixmap.Format.toGlType(format), pixels);
+            // Unmapped once collected, prepared again from the entry if the context is lost
+            pixels = null;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return format;
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return false;
+        }
+
+        @Override
+        public boolean isManaged() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Times the phases of a frame with {@link System#nanoTime()}. Call {@link #beginFrame()}, then {@link #lap(Phase)}
+ * after each phase, then {@link #endFrame(int, int, int)}. The last {@code window} frames are kept for percentiles.
+ * While active, texture binds are counted through a {@link GLProfiler}, and frames can be streamed to a CSV file.
+ */
+public class FrameProfiler implements Disposable {
+    public enum Phase {
+        UI_ACT, WORLD_UPDATE, INPUT, WORLD_DRAW, UI_DRAW
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    // Index of the whole frame in the sample rows, after the phases
+    private static final int FRAME = PHASES.length;
+
+    private final int window;
+    private final long[][] samples;
+    private final long[] current = new long[PHASES.length + 1];
+    private final long[] sorted;
+    private int head = 0;
+    private int count = 0;
+    private long frameStart;
+    private long lapStart;
+    private long frames = 0;
+
+    private int renderCalls;
+    private int textureBindings;
+    private int drawnBodies;
+    private int culledBodies;
+
+    private GLProfiler glProfiler;
+    private boolean active = false;
+    private Writer csv;
+    private final StringBuilder line = new StringBuilder();
+    private char[] chars = new char[256];
+
+    public FrameProfiler(int window) {
+        this.window = window;
+        this.samples = new long[PHASES.length + 1][window];
+        this.sorted = new long[window];
+    }
+
+    /** Turns texture bind counting on or off. Timings are always recorded, they cost a few clock reads a frame. */
+    public void setActive(boolean active) {
+        this.active = active;
+        updateGlProfiler();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        lapStart = frameStart;
+        if (glProfiler != null && glProfiler.isEnabled()) {
+            glProfiler.reset();
+        }
+    }
+
+    /** Records the time since the previous lap, or since {@link #beginFrame()}, as the given phase. */
+    public void lap(Phase phase) {
+        long now = System.nanoTime();
+        current[phase.ordinal()] = now - lapStart;
+        lapStart = now;
+    }
+
+    public void endFrame(int renderCalls, int drawnBodies, int culledBodies) {
+        current[FRAME] = lapStart - frameStart;
+        for (int i = 0; i < current.length; i++) {
+            samples[i][head] = current[i];
+        }
+        head = (head + 1) % window;
+        count = Math.min(count + 1, window);
+        frames++;
+
+        this.renderCalls = renderCalls;
+        this.textureBindings = glProfiler != null && glProfiler.isEnabled() ? glProfiler.getTextureBindings() : 0;
+        this.drawnBodies = drawnBodies;
+        this.culledBodies = culledBodies;
+        if (csv != null) {
+            writeCsvLine();
+        }
+    }
+
+    /** Returns the given percentile, 0 to 1, of a phase over the window in nanoseconds. */
+    public long getPercentile(Phase phase, float percentile) {
+        return percentile(samples[phase.ordinal()], percentile);
+    }
+
+    /** Returns the given percentile, 0 to 1, of the whole frame over the window in nanoseconds. */
+    public long getFramePercentile(float percentile) {
+        return percentile(samples[FRAME], percentile);
+    }
+
+    private long percentile(long[] row, float percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(row, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int rank = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    public int getTextureBindings() {
+        return textureBindings;
+    }
+
+    public int getDrawnBodies() {
+        return drawnBodies;
+    }
+
+    public int getCulledBodies() {
+        return culledBodies;
+    }
+
+    /** Streams every following frame to the file, one line per frame with the phase times in nanoseconds. */
+    public void startCsv(FileHandle file) {
+        stopCsv();
+        csv = file.writer(false, "UTF-8");
+        line.setLength(0);
+        line.append("frame");
+        for (Phase phase : PHASES) {
+            line.append(',').append(phase.name().toLowerCase());
+        }
+        line.append(",total,render_calls,texture_bindings,drawn,culled\n");
+        write();
+        updateGlProfiler();
+    }
+
+    public void stopCsv() {
+        if (csv == null) {
+            return;
+        }
+        try {
+            csv.close();
+        } catch (IOException e) {
+            Gdx.app.error("FrameProfiler", "Could not close the CSV file", e);
+        }
+        csv = null;
+        updateGlProfiler();
+    }
+
+    public boolean isRecording() {
+        return csv != null;
+    }
+
+    private void writeCsvLine() {
+        line.setLength(0);
+        line.append(frames);
+        for (long time : current) {
+            line.append(',').append(time);
+        }
+        line.append(',').append(renderCalls).append(',').append(textureBindings)
+            .append(',').append(drawnBodies).append(',').append(culledBodies).append('\n');
+        write();
+    }
+
+    private void write() {
+        if (chars.length < line.length()) {
+            chars = new char[line.length() * 2];
+        }
+        line.getChars(0, line.length(), chars, 0);
+        try {
+            csv.write(chars, 0, line.length());
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write the profiler CSV", e);
+        }
+    }
+
+    private void updateGlProfiler() {
+        boolean needed = active || csv != null;
+        if (needed && glProfiler == null) {
+            glProfiler = new GLProfiler(Gdx.graphics);
+        }
+        if (glProfiler == null) {
+            return;
+        }
+        if (needed) {
+            glProfiler.enable();
+        } else {
+            glProfiler.disable();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        stopCsv();
+        if (glProfiler != null) {
+            glProfiler.disable();
+        }
+    }
+}
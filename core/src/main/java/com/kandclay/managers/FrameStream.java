@@ -0,0 +1,151 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The frames of a sprite sheet as a compressed stream, as written by the {@code generateSpriteTiers} Gradle task for
+ * the full resolution tier. Each frame is deflated on its own, as the byte-wise difference from the frame before it,
+ * except every {@link #getKeyframeInterval() keyframe} which is stored whole. A frame is decoded by inflating forward
+ * from the nearest keyframe, so playing in order costs one inflate per frame and only a few megabytes stay in memory
+ * instead of the decoded sheet.
+ * <p>
+ * The file is a header of magic, frame width and height, frame count and keyframe interval, then the offset of every
+ * frame in the data and the offset of its end, then the data. Pixels are RGBA8888, rows from the top like a
+ * {@code Pixmap}.
+ */
+public class FrameStream {
+    /** "FRM1" */
+    private static final int MAGIC = 0x46524D31;
+
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int frameCount;
+    private final int keyframeInterval;
+    private final int[] offsets;
+    private final byte[] data;
+    private final int dataStart;
+
+    private FrameStream(int frameWidth, int frameHeight, int frameCount, int keyframeInterval, int[] offsets, byte[] data,
+                        int dataStart) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.frameCount = frameCount;
+        this.keyframeInterval = keyframeInterval;
+        this.offsets = offsets;
+        this.data = data;
+        this.dataStart = dataStart;
+    }
+
+    /** Reads the whole stream into memory, still compressed. */
+    public static FrameStream load(FileHandle file) {
+        byte[] bytes = file.readBytes();
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        if (bytes.length < 20 || header.getInt() != MAGIC) {
+            throw new GdxRuntimeException(file + " is not a frame stream");
+        }
+        int frameWidth = header.getInt();
+        int frameHeight = header.getInt();
+        int frameCount = header.getInt();
+        int keyframeInterval = header.getInt();
+        if (frameWidth < 1 || frameHeight < 1 || frameCount < 1 || keyframeInterval < 1
+            || header.remaining() < (frameCount + 1) * 4) {
+            throw new GdxRuntimeException(file + " has an invalid frame stream header");
+        }
+        int[] offsets = new int[frameCount + 1];
+        for (int i = 0; i <= frameCount; i++) {
+            offsets[i] = header.getInt();
+        }
+        int dataStart = header.position();
+        if (offsets[frameCount] > bytes.length - dataStart) {
+            throw new GdxRuntimeException(file + " is cut short");
+        }
+        return new FrameStream(frameWidth, frameHeight, frameCount, keyframeInterval, offsets, bytes, dataStart);
+    }
+
+    /** A decoder of its own, for one playhead. Decoders keep the last frame they decoded and are not thread safe. */
+    public Decoder newDecoder() {
+        return new Decoder();
+    }
+
+    public class Decoder {
+        private final Inflater inflater = new Inflater();
+        private final byte[] frame = new byte[frameWidth * frameHeight * 4];
+        private final byte[] delta = new byte[frame.length];
+        private int current = -1;
+
+        /** Decodes the given frame into {@code out}, from its position, which must have room for a whole frame. */
+        public void decode(int index, ByteBuffer out) {
+            if (index != current) {
+                int keyframe = index - index % keyframeInterval;
+                // Carries on from the frame decoded last when it's on the way, otherwise starts at the keyframe
+                int next = current >= keyframe && current < index ? current + 1 : keyframe;
+                // Until the loop is done the frame is neither the old one nor the new one
+                current = -1;
+                for (; next <= index; next++) {
+                    if (next % keyframeInterval == 0) {
+                        inflate(next, frame);
+                    } else {
+                        inflate(next, delta);
+                        for (int i = 0; i < frame.length; i++) {
+                            frame[i] += delta[i];
+                        }
+                    }
+                }
+                current = index;
+            }
+            out.put(frame);
+        }
+
+        private void inflate(int index, byte[] into) {
+            inflater.reset();
+            inflater.setInput(data, dataStart + offsets[index], offsets[index + 1] - offsets[index]);
+            try {
+                int length = 0;
+                while (length < into.length && !inflater.finished()) {
+                    int inflated = inflater.inflate(into, length, into.length - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += inflated;
+                }
+                if (length != into.length) {
+                    throw new GdxRuntimeException("Frame " + index + " of the stream is " + length + " bytes, expected "
+                        + into.length);
+                }
+            } catch (DataFormatException e) {
+                throw new GdxRuntimeException("Frame " + index + " of the stream is corrupt", e);
+            }
+        }
+
+        /** Frees the inflater's native memory, the decoder can't be used afterwards. */
+        public void dispose() {
+            inflater.end();
+        }
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /** Size of the stream in memory, compressed. */
+    public int getCompressedBytes() {
+        return data.length;
+    }
+}
@@ -1,47 +1,260 @@
 // MyAssetManager.java
 package com.kandclay.managers;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureAtlasLoader;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.kandclay.Constants;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 public class MyAssetManager {
+    public static final String SKIN = "skin/default/skin/uiskin.json";
+    /**
+     * Written by the {@code packTextures} Gradle task, which every platform's build runs through {@code prepareAssets}:
+     * the static sprites, the background and the coarser tiers.
+     */
+    public static final String ATLAS = "sprites/atlas/solarSystemAssets.atlas";
+    public static final String BACKGROUND = "backgroundSimple";
+
+    // Queued in this order: the menu needs only the skin, the world shows the sun and inner planets first.
+    private static final String[] MENU_ASSETS = {
+        SKIN
+    };
+    private static final String[] BODY_SHEETS = {
+        "sun", "mercury", "venus", "earth", "moon", "mars", "jupiter", "saturn", "uranus", "neptune"
+    };
+
     private AssetManager assetManager;
+    private final TextureDecodePool decodePool;
+    private final ParallelTextureLoader textureLoader;
+    private final TextureCache textureCache;
+    private final SpriteTierManifest spriteTiers;
+    private final String[] worldAssets;
+    // Reads and decodes frame streams, one task at a time in the order queued as StreamedAnimation needs
+    private final ExecutorService decoderThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "FrameDecoder");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Hands every texture to the decode pool as soon as it is queued, directly or as a page of an atlas, so the
+     * textures decode in parallel while the asset manager works through its queue one asset at a time.
+     */
+    private static class PrefetchingAssetManager extends AssetManager {
+        private final TextureDecodePool decodePool;
+
+        PrefetchingAssetManager(FileHandleResolver resolver, TextureDecodePool decodePool) {
+            super(resolver);
+            this.decodePool = decodePool;
+            setLoader(TextureAtlas.class, new TextureAtlasLoader(resolver) {
+                @Override
+                public Array<AssetDescriptor> getDependencies(String fileName, FileHandle atlasFile,
+                                                              TextureAtlasParameter parameter) {
+                    Array<AssetDescriptor> dependencies = super.getDependencies(fileName, atlasFile, parameter);
+                    for (AssetDescriptor dependency : dependencies) {
+                        if (dependency.type == Texture.class && !contains(dependency.fileName)) {
+                            PrefetchingAssetManager.this.decodePool.prefetch(dependency.fileName, dependency.file,
+                                (TextureLoader.TextureParameter) dependency.params);
+                        }
+                    }
+                    return dependencies;
+                }
+            });
+        }
+
+        @Override
+        public synchronized <T> void load(String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+            if (type == Texture.class && !contains(fileName)) {
+                decodePool.prefetch(fileName, getFileHandleResolver().resolve(fileName),
+                    (TextureLoader.TextureParameter) parameter);
+            }
+            super.load(fileName, type, parameter);
+        }
+
+        @Override
+        public synchronized void unload(String fileName) {
+            if (!isLoaded(fileName)) {
+                decodePool.cancel(fileName);
+            }
+            super.unload(fileName);
+        }
+    }
 
     public MyAssetManager() {
-        assetManager = new AssetManager();
+        InternalFileHandleResolver resolver = new InternalFileHandleResolver();
+        // The render thread only uploads, so every other core decodes
+        decodePool = new TextureDecodePool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            new DiskTextureCache(Gdx.files.local(Constants.DiskTextureCache.DIRECTORY)));
+        assetManager = new PrefetchingAssetManager(resolver, decodePool);
+        textureCache = new TextureCache(assetManager);
+        textureLoader = new ParallelTextureLoader(resolver, decodePool, textureCache);
+        assetManager.setLoader(Texture.class, textureLoader);
+        spriteTiers = new SpriteTierManifest();
+
+        // The smallest tier of each sheet is preloaded, in the atlas unless the tiers were never packed. Larger tiers
+        // are requested as bodies are zoomed in on
+        Array<String> assets = new Array<String>(String.class);
+        assets.add(ATLAS);
+        for (String sheet : BODY_SHEETS) {
+            SpriteTierManifest.Tier coarsest = spriteTiers.getTiers(sheet).peek();
+            if (coarsest.region == null) {
+                assets.add(coarsest.path);
+            }
+        }
+        worldAssets = assets.toArray();
+    }
+
+    public static String animationPath(String name) {
+        return "sprites/anim/" + name + ".png";
+    }
+
+    public String[] getMenuAssets() {
+        return MENU_ASSETS;
+    }
+
+    public String[] getWorldAssets() {
+        return worldAssets;
     }
 
     public void loadAssets() {
-        String[] textures = {
-            "sprites/static/backgroundSimple.png",
-            "sprites/anim/earth.png",
-            "sprites/anim/saturn.png",
-            "sprites/anim/moon.png",
-            "sprites/anim/sun.png",
-            "sprites/anim/uranus.png",
-            "sprites/anim/venus.png",
-            "sprites/anim/jupiter.png",
-            "sprites/anim/mars.png",
-            "sprites/anim/neptune.png",
-            "sprites/anim/mercury.png",
-            "sprites/static/ice.png"
-        };
-        for (String texture : textures) {
-            assetManager.load(texture, Texture.class);
-        }
-        assetManager.load("skin/default/skin/uiskin.json", Skin.class);
+        assetManager.load(SKIN, Skin.class);
+        for (String assetPath : worldAssets) {
+            assetManager.load(assetPath, typeOf(assetPath));
+        }
+    }
+
+    private static Class<?> typeOf(String assetPath) {
+        if (assetPath.endsWith(".json")) {
+            return Skin.class;
+        }
+        return assetPath.endsWith(".atlas") ? TextureAtlas.class : Texture.class;
+    }
+
+    /** Queues any of the given assets that are neither loaded nor queued, e.g. sheets evicted by the texture cache. */
+    public void queue(String[] assetPaths) {
+        for (String assetPath : assetPaths) {
+            if (!assetManager.contains(assetPath)) {
+                assetManager.load(assetPath, typeOf(assetPath));
+            }
+        }
+    }
+
+    /**
+     * Advances loading and returns whether every queued asset is loaded. Meant to be called once per frame. Decoding
+     * goes on in the background between frames, only the uploads have to happen on the render thread.
+     * <p>
+     * While {@code waiting}, when the frame has nothing else to do as on a loading screen, this keeps polling the
+     * asset manager for up to {@link Constants.Loading#FRAME_BUDGET_MILLIS}. Otherwise it stops as soon as a step
+     * uploads nothing, so a frame never waits for a decode, and only carries on through textures that are ready to
+     * upload, within the same time budget. Either way it stops once {@link Constants.Loading#UPLOAD_BUDGET_BYTES} of
+     * textures have been uploaded.
+     */
+    public boolean update(boolean waiting) {
+        textureCache.update();
+        long endMillis = TimeUtils.millis() + Constants.Loading.FRAME_BUDGET_MILLIS;
+        long uploadLimit = textureLoader.getUploadedBytes() + Constants.Loading.UPLOAD_BUDGET_BYTES;
+        while (true) {
+            long uploadedBytes = textureLoader.getUploadedBytes();
+            boolean done = assetManager.update();
+            if (done || TimeUtils.millis() >= endMillis || textureLoader.getUploadedBytes() >= uploadLimit
+                || !waiting && textureLoader.getUploadedBytes() == uploadedBytes) {
+                return done;
+            }
+            Thread.yield();
+        }
     }
 
     public void finishLoading() {
         assetManager.finishLoading();
     }
 
+    public boolean isLoaded(String assetPath) {
+        return assetManager.isLoaded(assetPath);
+    }
+
+    public boolean isLoaded(String[] assetPaths) {
+        for (String assetPath : assetPaths) {
+            if (!assetManager.isLoaded(assetPath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Fraction of the given assets that are already loaded, between 0 and 1. */
+    public float getProgress(String[] assetPaths) {
+        if (assetPaths.length == 0) {
+            return 1f;
+        }
+        int loaded = 0;
+        for (String assetPath : assetPaths) {
+            if (assetManager.isLoaded(assetPath)) {
+                loaded++;
+            }
+        }
+        return (float) loaded / assetPaths.length;
+    }
+
+    public float getProgress() {
+        return assetManager.getProgress();
+    }
+
+    /** The packed atlas, or null while it isn't loaded. */
+    public TextureAtlas getAtlas() {
+        return assetManager.isLoaded(ATLAS) ? assetManager.get(ATLAS, TextureAtlas.class) : null;
+    }
+
+    public TextureRegion getRegion(String name) {
+        TextureAtlas atlas = getAtlas();
+        TextureRegion region = atlas == null ? null : atlas.findRegion(name);
+        if (region == null) {
+            throw new GdxRuntimeException("Region " + name + " not found in " + ATLAS + ", run the prepareAssets task");
+        }
+        return region;
+    }
+
+    public SpriteTierManifest getSpriteTiers() {
+        return spriteTiers;
+    }
+
+    public TextureCache getTextureCache() {
+        return textureCache;
+    }
+
+    /** The thread frame streams are decoded on, see {@link StreamedAnimation}. */
+    public Executor getDecoderThread() {
+        return decoderThread;
+    }
+
     public <T> T get(String assetPath, Class<T> type) {
         return assetManager.get(assetPath, type);
     }
 
     public void dispose() {
+        // Tasks already queued, like the streams freeing their pixmaps, still run
+        decoderThread.shutdown();
+        decodePool.dispose();
         assetManager.dispose();
     }
 }
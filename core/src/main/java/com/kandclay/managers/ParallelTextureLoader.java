@@ -0,0 +1,83 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.telemetry.Telemetry;
+
+/**
+ * Loads textures like {@link TextureLoader}, but takes the data decoded by the {@link TextureDecodePool} when the
+ * texture was prefetched, so the decode has usually finished by the time the {@link AssetManager} gets to it. Every
+ * upload is reported to the {@link Telemetry} and counted towards the upload budget of {@link MyAssetManager#update(boolean)}.
+ */
+public class ParallelTextureLoader extends AsynchronousAssetLoader<Texture, TextureLoader.TextureParameter> {
+    private final TextureDecodePool decodePool;
+    private final TextureCache textureCache;
+    // Of the texture being loaded, the asset manager loads one at a time
+    private TextureData data;
+    private Texture texture;
+    private long uploadedBytes = 0;
+
+    public ParallelTextureLoader(FileHandleResolver resolver, TextureDecodePool decodePool, TextureCache textureCache) {
+        super(resolver);
+        this.decodePool = decodePool;
+        this.textureCache = textureCache;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        texture = parameter == null ? null : parameter.texture;
+        if (parameter != null && parameter.textureData != null) {
+            data = parameter.textureData;
+            if (!data.isPrepared()) {
+                data.prepare();
+            }
+            return;
+        }
+        data = decodePool.take(fileName);
+        if (data == null) {
+            data = decodePool.decode(fileName, file, parameter);
+        }
+    }
+
+    @Override
+    public Texture loadSync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        if (data == null) {
+            return null;
+        }
+        Object upload = Telemetry.get().beginTextureUpload();
+        Texture result = texture;
+        if (result != null) {
+            result.load(data);
+        } else {
+            result = new Texture(data);
+        }
+        if (parameter != null) {
+            result.setFilter(parameter.minFilter, parameter.magFilter);
+            result.setWrap(parameter.wrapU, parameter.wrapV);
+        }
+        data = null;
+        texture = null;
+        long bytes = TextureCache.estimateBytes(result);
+        uploadedBytes += bytes;
+        Telemetry.get().endTextureUpload(upload, fileName, result.getWidth(), result.getHeight(), bytes);
+        textureCache.loaded(fileName, result);
+        return result;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        return null;
+    }
+
+    /** Estimated bytes uploaded since the loader was created. */
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * The frames of a sprite sheet laid out in a grid, row by row from the top left. Frames are not stored: the texture
+ * coordinates of a frame are worked out from its index when it is drawn, so a sheet costs the same few fields however
+ * many frames it has and however many bodies draw it.
+ */
+public class SheetFrames {
+    private final Texture texture;
+    private final float u;
+    private final float v;
+    private final float frameU;
+    private final float frameV;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int columns;
+    private final int frameCount;
+    private final float frameDuration;
+
+    /** Splits the sheet, a whole texture or an atlas region, into whole pixel frames like {@link TextureRegion#split}. */
+    public SheetFrames(TextureRegion sheet, int columns, int rows, float frameDuration) {
+        this.texture = sheet.getTexture();
+        this.u = sheet.getU();
+        this.v = sheet.getV();
+        this.frameWidth = sheet.getRegionWidth() / columns;
+        this.frameHeight = sheet.getRegionHeight() / rows;
+        this.frameU = (float) frameWidth / texture.getWidth();
+        this.frameV = (float) frameHeight / texture.getHeight();
+        this.columns = columns;
+        this.frameCount = columns * rows;
+        this.frameDuration = frameDuration;
+    }
+
+    /** Index of the frame shown at {@code stateTime} seconds, looping. */
+    public int getFrameIndex(float stateTime) {
+        int frame = (int) (stateTime / frameDuration) % frameCount;
+        return frame < 0 ? frame + frameCount : frame;
+    }
+
+    /** Points {@code out} at the given frame and returns it, so one region can be reused for every draw. */
+    public TextureRegion getFrame(int index, TextureRegion out) {
+        int column = index % columns;
+        int row = index / columns;
+        float frameStartU = u + column * frameU;
+        float frameStartV = v + row * frameV;
+        out.setTexture(texture);
+        out.setRegion(frameStartU, frameStartV, frameStartU + frameU, frameStartV + frameV);
+        return out;
+    }
+
+    public TextureRegion getKeyFrame(float stateTime, TextureRegion out) {
+        return getFrame(getFrameIndex(stateTime), out);
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /** Seconds before the animation starts over. */
+    public float getCycleDuration() {
+        return frameCount * frameDuration;
+    }
+}
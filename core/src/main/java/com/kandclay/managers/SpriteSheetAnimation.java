@@ -0,0 +1,149 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.Constants;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A sprite sheet animation available in several resolution tiers and backed by the {@link TextureCache}. The
+ * {@link SheetFrames} of a tier are only made the first time it is drawn, remade whenever its sheet was evicted and
+ * reloaded, and dropped while it is not resident. Bodies using the same sheet share one of these.
+ * <p>
+ * Tiers packed into the atlas are drawn from their region instead, which is always resident, so bodies drawn at
+ * those tiers share the atlas pages and don't break the batch.
+ * <p>
+ * A full resolution tier written as a {@link FrameStream} can be played through a {@link StreamedAnimation} instead of
+ * loading its sheet. The stream is read on the decoder thread the first time a body opens it, and shared by every
+ * body using the sheet.
+ */
+public class SpriteSheetAnimation {
+    private final TextureCache textureCache;
+    private final Array<SpriteTierManifest.Tier> tiers;
+    // Atlas region of each tier, null for tiers that are textures of their own
+    private final TextureAtlas.AtlasRegion[] regions;
+    private final SheetFrames[] frames;
+    private final Executor decoderThread;
+    private volatile FrameStream stream;
+    // Set by the decoder thread if the stream can't be read, the sheet is used instead
+    private volatile boolean streamFailed = false;
+    private boolean streamRequested = false;
+
+    public SpriteSheetAnimation(TextureCache textureCache, Array<SpriteTierManifest.Tier> tiers) {
+        this(textureCache, null, null, tiers);
+    }
+
+    /**
+     * Regions missing from the atlas, or a null atlas, fall back to the tier's own texture. Without a decoder thread
+     * the full resolution tier is never streamed.
+     */
+    public SpriteSheetAnimation(TextureCache textureCache, TextureAtlas atlas, Executor decoderThread,
+                                Array<SpriteTierManifest.Tier> tiers) {
+        this.textureCache = textureCache;
+        this.decoderThread = decoderThread;
+        this.tiers = tiers;
+        this.regions = new TextureAtlas.AtlasRegion[tiers.size];
+        this.frames = new SheetFrames[tiers.size];
+        for (int i = 0; i < tiers.size; i++) {
+            String region = tiers.get(i).region;
+            regions[i] = atlas == null || region == null ? null : atlas.findRegion(region);
+        }
+    }
+
+    /**
+     * Returns the frames of the given tier. While that tier is still loading, the nearest tier that is resident is
+     * returned instead, or null if there is none.
+     */
+    public SheetFrames acquire(int tier) {
+        SheetFrames sheet = acquireTier(tier);
+        if (sheet != null) {
+            return sheet;
+        }
+        for (int offset = 1; offset < tiers.size; offset++) {
+            int coarser = tier + offset;
+            if (coarser < tiers.size && isResident(coarser)) {
+                return acquireTier(coarser);
+            }
+            int finer = tier - offset;
+            if (finer >= 0 && isResident(finer)) {
+                return acquireTier(finer);
+            }
+        }
+        return null;
+    }
+
+    private boolean isResident(int tier) {
+        return regions[tier] != null || textureCache.isResident(tiers.get(tier).path);
+    }
+
+    private SheetFrames acquireTier(int tier) {
+        if (regions[tier] != null) {
+            // The atlas stays loaded
+            if (frames[tier] == null) {
+                frames[tier] = createFrames(regions[tier]);
+            }
+            return frames[tier];
+        }
+        Texture texture = textureCache.acquire(tiers.get(tier).path);
+        if (texture == null) {
+            frames[tier] = null;
+            return null;
+        }
+        if (frames[tier] == null || frames[tier].getTexture() != texture) {
+            frames[tier] = createFrames(new TextureRegion(texture));
+        }
+        return frames[tier];
+    }
+
+    /** Whether the full resolution tier can be streamed, see {@link #openStream()}. */
+    public boolean hasStream() {
+        return decoderThread != null && tiers.first().stream != null && !streamFailed;
+    }
+
+    /**
+     * Opens a stream of the full resolution tier for one body, which must dispose it when it stops drawing that tier.
+     * Returns null while the stream is being read, and once {@link Constants.Stream#MAX_OPEN} streams are open.
+     */
+    public StreamedAnimation openStream() {
+        if (!hasStream() || StreamedAnimation.getOpenCount() >= Constants.Stream.MAX_OPEN) {
+            return null;
+        }
+        FrameStream stream = this.stream;
+        if (stream == null) {
+            if (!streamRequested) {
+                streamRequested = true;
+                final String path = tiers.first().stream;
+                decoderThread.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            SpriteSheetAnimation.this.stream = FrameStream.load(Gdx.files.internal(path));
+                        } catch (RuntimeException e) {
+                            streamFailed = true;
+                            Gdx.app.error("SpriteSheetAnimation", "Could not read the frame stream " + path, e);
+                        }
+                    }
+                });
+            }
+            return null;
+        }
+        return new StreamedAnimation(stream, decoderThread, Constants.Animation.FRAME_DURATION);
+    }
+
+    public static SheetFrames createFrames(TextureRegion sheet) {
+        return new SheetFrames(sheet, Constants.Animation.NUM_COLS, Constants.Animation.NUM_ROWS,
+            Constants.Animation.FRAME_DURATION);
+    }
+
+    public int getTierCount() {
+        return tiers.size;
+    }
+
+    public int getFrameSize(int tier) {
+        return tiers.get(tier).frameSize;
+    }
+}
@@ -0,0 +1,80 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Resolution tiers of each animated sheet, as written by the {@code generateSpriteTiers} Gradle task. Tier 0 is the
+ * full resolution sheet and every following tier halves the frame size. The coarser tiers are also packed into the
+ * texture atlas by the {@code packTextures} task, those name their atlas region, and the full resolution tier is also
+ * written as a {@link FrameStream}. Without a manifest every sheet has just its original tier.
+ */
+public class SpriteTierManifest {
+    public static final String PATH = "sprites/tiers/manifest.json";
+
+    private final ObjectMap<String, Array<Tier>> sheets = new ObjectMap<String, Array<Tier>>();
+
+    public static class Tier {
+        public final String path;
+        public final int frameSize;
+        /** Name of the tier's region in {@link MyAssetManager#ATLAS}, or null if it's only a texture of its own. */
+        public final String region;
+        /** Path of the tier's {@link FrameStream}, or null if it can only be drawn from its sheet. */
+        public final String stream;
+
+        public Tier(String path, int frameSize) {
+            this(path, frameSize, null, null);
+        }
+
+        public Tier(String path, int frameSize, String region, String stream) {
+            this.path = path;
+            this.frameSize = frameSize;
+            this.region = region;
+            this.stream = stream;
+        }
+    }
+
+    public SpriteTierManifest() {
+        FileHandle file = Gdx.files.internal(PATH);
+        if (!file.exists()) {
+            Gdx.app.log("SpriteTierManifest", PATH + " not found, using full resolution sheets only");
+            return;
+        }
+        boolean useCompressed = supportsEtc2();
+        JsonValue root = new JsonReader().parse(file);
+        for (JsonValue sheet = root.get("sheets").child; sheet != null; sheet = sheet.next) {
+            Array<Tier> tiers = new Array<Tier>();
+            for (JsonValue tier = sheet.child; tier != null; tier = tier.next) {
+                String compressedPath = tier.getString("compressedPath", null);
+                String path = useCompressed && compressedPath != null ? compressedPath : tier.getString("path");
+                tiers.add(new Tier(path, tier.getInt("frameSize"), tier.getString("atlasRegion", null),
+                    tier.getString("stream", null)));
+            }
+            sheets.put(sheet.name, tiers);
+        }
+    }
+
+    public Array<Tier> getTiers(String name) {
+        Array<Tier> tiers = sheets.get(name);
+        if (tiers == null) {
+            tiers = new Array<Tier>();
+            tiers.add(new Tier(MyAssetManager.animationPath(name), Integer.MAX_VALUE));
+            sheets.put(name, tiers);
+        }
+        return tiers;
+    }
+
+    private static boolean supportsEtc2() {
+        if (Gdx.gl30 == null) {
+            return false;
+        }
+        Application.ApplicationType type = Gdx.app.getType();
+        return type == Application.ApplicationType.Android || type == Application.ApplicationType.iOS
+            || Gdx.graphics.supportsExtension("GL_ARB_ES3_compatibility");
+    }
+}
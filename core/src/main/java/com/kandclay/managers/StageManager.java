@@ -1,31 +1,73 @@
 package com.kandclay.managers;
 
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Scaling;
 import com.kandclay.actors.BackgroundActor;
+import com.kandclay.actors.CelestialBodyActor;
+import com.kandclay.simulation.OrbitSimulation;
 
 public class StageManager {
     private final Stage worldStage;
+    private final Array<CelestialBodyActor> celestialBodies;
+    private final OrbitSimulation simulation;
+    private int culledCount = 0;
+    private int drawnCount = 0;
 
-    public StageManager(CameraManager cameraManager) {
+    public StageManager(CameraManager cameraManager, Array<CelestialBodyActor> celestialBodies, OrbitSimulation simulation) {
         cameraManager.getViewport().setScaling(Scaling.contain);
         this.worldStage = new Stage(cameraManager.getViewport());
+        this.celestialBodies = celestialBodies;
+        this.simulation = simulation;
     }
 
     public Stage getWorldStage() {
         return worldStage;
     }
 
-    public void initializeBackground(Texture backgroundTexture, float width, float height) {
-        BackgroundActor backgroundActor = new BackgroundActor(backgroundTexture);
+    public void initializeBackground(TextureRegion background, float width, float height) {
+        BackgroundActor backgroundActor = new BackgroundActor(background);
         backgroundActor.setSize(width, height);
         backgroundActor.setPosition(0, 0);
         backgroundActor.toBack();
         worldStage.addActor(backgroundActor);
     }
 
+    /** Updates the orbits first, the actors then only copy their new positions. */
     public void update(float delta) {
+        simulation.update(delta);
         worldStage.act(delta);
     }
+
+    /** Culls the bodies against the current camera, then draws the stage. */
+    public void draw() {
+        Camera camera = worldStage.getCamera();
+        camera.update();
+        cull(camera);
+        worldStage.draw();
+    }
+
+    private void cull(Camera camera) {
+        culledCount = 0;
+        drawnCount = 0;
+        for (CelestialBodyActor body : celestialBodies) {
+            boolean inView = body.isInFrustum(camera.frustum);
+            body.setCulled(!inView);
+            if (inView) {
+                drawnCount++;
+            } else {
+                culledCount++;
+            }
+        }
+    }
+
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    public int getDrawnCount() {
+        return drawnCount;
+    }
 }
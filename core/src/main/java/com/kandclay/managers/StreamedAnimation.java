@@ -0,0 +1,184 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.kandclay.Constants;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Plays a {@link FrameStream} for one body through a small ring of textures, {@link Constants.Stream#RING_FRAMES}
+ * frames instead of the whole sheet. Frames are decoded ahead of the one shown on the decoder thread, into the
+ * pixmap of a free slot of the ring, and uploaded to that slot's texture on the GL thread when they are wanted.
+ * Slots holding frames that have been passed are reused.
+ * <p>
+ * The decoder thread must run tasks one at a time in order: the stream's decoder carries on from the frame it decoded
+ * last, and a slot's pixmap is only disposed once the tasks queued before it are done.
+ */
+public class StreamedAnimation implements Disposable {
+    private static int openCount = 0;
+
+    private final FrameStream stream;
+    private final FrameStream.Decoder decoder;
+    private final Executor decoderThread;
+    private final float frameDuration;
+    private final Slot[] slots;
+    private Slot shown;
+    private boolean disposed = false;
+    // Set by the decoder thread if the stream can't be decoded, the body then draws a sheet again
+    private volatile boolean failed = false;
+
+    private static class Slot {
+        final Pixmap pixmap;
+        Texture texture;
+        // Set on the GL thread before the decode task is queued, -1 when the slot is free
+        int frame = -1;
+        boolean uploaded;
+        // Set by the decoder thread once the pixmap holds the frame
+        volatile boolean decoded;
+
+        Slot(int width, int height) {
+            pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        }
+    }
+
+    public StreamedAnimation(FrameStream stream, Executor decoderThread, float frameDuration) {
+        this.stream = stream;
+        this.decoder = stream.newDecoder();
+        this.decoderThread = decoderThread;
+        this.frameDuration = frameDuration;
+        slots = new Slot[Constants.Stream.RING_FRAMES];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(stream.getFrameWidth(), stream.getFrameHeight());
+        }
+        openCount++;
+    }
+
+    /**
+     * Points {@code out} at the frame shown at {@code stateTime} seconds and returns it. If that frame isn't decoded
+     * yet the last one shown is kept, and until the first frame is ready, or if decoding failed, null is returned.
+     */
+    public TextureRegion getKeyFrame(float stateTime, TextureRegion out) {
+        if (failed) {
+            return null;
+        }
+        int frameCount = stream.getFrameCount();
+        int wanted = (int) (stateTime / frameDuration) % frameCount;
+        if (wanted < 0) {
+            wanted += frameCount;
+        }
+
+        for (Slot slot : slots) {
+            if (slot.frame == wanted && slot.decoded) {
+                upload(slot);
+                shown = slot;
+                break;
+            }
+        }
+        // Frees the slots that aren't shown and hold frames outside the ring ahead
+        for (Slot slot : slots) {
+            if (slot != shown && slot.frame >= 0 && slot.decoded
+                && Math.floorMod(slot.frame - wanted, frameCount) >= slots.length) {
+                slot.frame = -1;
+            }
+        }
+        for (int ahead = 0; ahead < slots.length; ahead++) {
+            int frame = (wanted + ahead) % frameCount;
+            if (!isQueued(frame) && !queue(frame)) {
+                break;
+            }
+        }
+
+        if (shown == null) {
+            return null;
+        }
+        out.setRegion(shown.texture);
+        return out;
+    }
+
+    private boolean isQueued(int frame) {
+        for (Slot slot : slots) {
+            if (slot.frame == frame) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Queues the frame for decoding into a free slot, returns false if there is none. */
+    private boolean queue(final int frame) {
+        for (final Slot slot : slots) {
+            if (slot.frame < 0 && slot != shown) {
+                slot.frame = frame;
+                slot.uploaded = false;
+                slot.decoded = false;
+                decoderThread.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (failed) {
+                            return;
+                        }
+                        try {
+                            slot.pixmap.getPixels().clear();
+                            decoder.decode(frame, slot.pixmap.getPixels());
+                            slot.pixmap.getPixels().clear();
+                            slot.decoded = true;
+                        } catch (RuntimeException e) {
+                            failed = true;
+                            Gdx.app.error("StreamedAnimation", "Could not decode frame " + frame, e);
+                        }
+                    }
+                });
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void upload(Slot slot) {
+        if (slot.uploaded) {
+            return;
+        }
+        if (slot.texture == null) {
+            slot.texture = new Texture(slot.pixmap);
+        } else {
+            slot.texture.draw(slot.pixmap, 0, 0);
+        }
+        slot.uploaded = true;
+    }
+
+    /** Streams open at once, each holds its ring of textures until disposed. */
+    public static int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Disposes the textures straight away. The pixmaps and the decoder are freed on the decoder thread, after the
+     * tasks still queued for them.
+     */
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        openCount--;
+        for (Slot slot : slots) {
+            if (slot.texture != null) {
+                slot.texture.dispose();
+            }
+        }
+        decoderThread.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Slot slot : slots) {
+                    slot.pixmap.dispose();
+                }
+                decoder.dispose();
+            }
+        });
+    }
+}
@@ -0,0 +1,193 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.KTXTextureData;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.kandclay.Constants;
+
+/**
+ * Keeps the large sprite sheets resident within a byte budget. Sheets are requested every frame they are drawn through
+ * {@link #acquire(String)}; once the budget is exceeded, the sheets that have not been requested for the longest time
+ * (and at least {@link Constants.TextureCache#EVICTION_DELAY_MILLIS}) are unloaded. A request for an unloaded sheet
+ * queues it again on the {@link AssetManager} and returns null until it is back.
+ * <p>
+ * Every texture the asset manager loads is reported through {@link #loaded}, so textures that are never requested,
+ * like the atlas pages, count against the budget too. Only sheets that have been requested are ever evicted.
+ */
+public class TextureCache {
+    private static final int ETC2_RGBA_BLOCK_BYTES = 16;
+    private final AssetManager assetManager;
+    private final ObjectMap<String, Entry> entries = new ObjectMap<String, Entry>();
+    private long budgetBytes = Constants.TextureCache.BUDGET_BYTES;
+    private long residentBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    private static class Entry {
+        final String path;
+        long lastUsedMillis;
+        long bytes;
+        boolean resident;
+        // Requested through acquire, the others are loaded and unloaded by their owner
+        boolean evictable;
+
+        Entry(String path) {
+            this.path = path;
+        }
+    }
+
+    public TextureCache(AssetManager assetManager) {
+        this.assetManager = assetManager;
+    }
+
+    /** Returns the texture if it is resident, or queues it for loading and returns null. */
+    public Texture acquire(String path) {
+        Entry entry = entry(path);
+        entry.lastUsedMillis = TimeUtils.millis();
+        entry.evictable = true;
+
+        if (assetManager.isLoaded(path)) {
+            Texture texture = assetManager.get(path, Texture.class);
+            charge(entry, texture);
+            hits++;
+            return texture;
+        }
+
+        misses++;
+        if (!assetManager.contains(path)) {
+            assetManager.load(path, Texture.class);
+        }
+        return null;
+    }
+
+    /** Charges a texture the asset manager has just loaded against the budget, whoever asked for it. */
+    public void loaded(String path, Texture texture) {
+        Entry entry = entry(path);
+        entry.lastUsedMillis = TimeUtils.millis();
+        charge(entry, texture);
+    }
+
+    private Entry entry(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entry = new Entry(path);
+            entries.put(path, entry);
+        }
+        return entry;
+    }
+
+    private void charge(Entry entry, Texture texture) {
+        if (!entry.resident) {
+            entry.resident = true;
+            entry.bytes = estimateBytes(texture);
+            residentBytes += entry.bytes;
+        }
+    }
+
+    /** Whether the texture is loaded, without counting as a use. */
+    public boolean isResident(String path) {
+        return assetManager.isLoaded(path);
+    }
+
+    /** Evicts least recently used sheets until the resident size fits the budget. Call once per frame. */
+    public void update() {
+        long now = TimeUtils.millis();
+        while (residentBytes > budgetBytes) {
+            Entry oldest = null;
+            for (Entry entry : entries.values()) {
+                if (entry.resident && entry.evictable && now - entry.lastUsedMillis >= Constants.TextureCache.EVICTION_DELAY_MILLIS
+                    && (oldest == null || entry.lastUsedMillis < oldest.lastUsedMillis)) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                // Everything over budget is still in use
+                return;
+            }
+            evict(oldest);
+        }
+    }
+
+    private void evict(Entry entry) {
+        if (assetManager.isLoaded(entry.path)) {
+            assetManager.unload(entry.path);
+        }
+        entry.resident = false;
+        residentBytes -= entry.bytes;
+        entry.bytes = 0;
+        evictions++;
+    }
+
+    static long estimateBytes(Texture texture) {
+        return estimateBytes(texture.getTextureData());
+    }
+
+    /** Size of the data once uploaded, from its pixel format or, for the compressed sprite tiers, their block size. */
+    static long estimateBytes(TextureData data) {
+        if (data instanceof KTXTextureData) {
+            // The tiers are encoded as ETC2 RGBA, 16 bytes per 4x4 block. The data handles its own format, and
+            // getFormat() throws
+            long bytes = (long) ((data.getWidth() + 3) / 4) * ((data.getHeight() + 3) / 4) * ETC2_RGBA_BLOCK_BYTES;
+            // The mipmaps add a third
+            return data.useMipMaps() ? bytes * 4 / 3 : bytes;
+        }
+        return (long) data.getWidth() * data.getHeight() * bytesPerPixel(data.getFormat());
+    }
+
+    static int bytesPerPixel(Pixmap.Format format) {
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TextureCache[resident=" + (residentBytes >> 20) + "MB/" + (budgetBytes >> 20) + "MB, hits=" + hits
+            + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+}
@@ -0,0 +1,128 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.kandclay.telemetry.Telemetry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes textures on a pool of worker threads ahead of the {@link AssetManager}, which loads one asset at a time.
+ * Textures are {@link #prefetch prefetched} as soon as they are queued, so everything in the queue decodes at once on
+ * all the workers, and the {@link ParallelTextureLoader} only {@link #take takes} the result when the asset manager
+ * gets to it. Only the GL upload is left on the render thread.
+ */
+public class TextureDecodePool implements Disposable {
+    private final ExecutorService workers;
+    private final DiskTextureCache diskCache;
+    private final ConcurrentHashMap<String, Future<TextureData>> pending = new ConcurrentHashMap<String, Future<TextureData>>();
+
+    /** Images are decoded through the disk cache if there is one, it may be null. */
+    public TextureDecodePool(int threadCount, DiskTextureCache diskCache) {
+        this.diskCache = diskCache;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TextureDecoder-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** Starts decoding the file on a worker, unless it is already being decoded. */
+    public void prefetch(final String fileName, final FileHandle file, final TextureLoader.TextureParameter parameter) {
+        if (parameter != null && parameter.textureData != null) {
+            // Nothing to decode, the loader uses the given data
+            return;
+        }
+        FutureTask<TextureData> task = new FutureTask<TextureData>(new Callable<TextureData>() {
+            @Override
+            public TextureData call() {
+                return decode(fileName, file, parameter);
+            }
+        });
+        if (pending.putIfAbsent(fileName, task) == null) {
+            workers.execute(task);
+        }
+    }
+
+    /**
+     * Reads and prepares the texture data on the calling thread, as {@link TextureLoader} does, from the disk cache
+     * when the file is cached.
+     */
+    public TextureData decode(String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        Object load = Telemetry.get().beginAssetLoad();
+        Pixmap.Format format = parameter == null ? null : parameter.format;
+        boolean genMipMaps = parameter != null && parameter.genMipMaps;
+        TextureData data = diskCache == null ? null : diskCache.load(fileName, file, format, genMipMaps);
+        if (data == null) {
+            data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
+        }
+        if (!data.isPrepared()) {
+            data.prepare();
+        }
+        Telemetry.get().endAssetLoad(load, fileName, file.length());
+        return data;
+    }
+
+    /** Waits for the prefetched data of the file and returns it, or returns null if it was never prefetched. */
+    public TextureData take(String fileName) {
+        Future<TextureData> future = pending.remove(fileName);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while decoding " + fileName, e);
+        } catch (ExecutionException e) {
+            throw new GdxRuntimeException("Could not decode " + fileName, e.getCause());
+        }
+    }
+
+    /** Frees the data of a file that was unloaded before the loader took it. */
+    public void cancel(String fileName) {
+        final Future<TextureData> future = pending.remove(fileName);
+        if (future == null) {
+            return;
+        }
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    TextureData data = future.get();
+                    // Other data is freed when it's uploaded, it's left to the garbage collector instead
+                    if (data.getType() == TextureData.TextureDataType.Pixmap && data.disposePixmap()) {
+                        data.consumePixmap().dispose();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // Nothing was decoded
+                }
+            }
+        });
+    }
+
+    /** Stops the workers once the decodes already started are done. */
+    @Override
+    public void dispose() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+package com.kandclay.screens;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.kandclay.Constants;
+import com.kandclay.Main;
+import com.kandclay.managers.MyAssetManager;
+
+/**
+ * Shows loading progress for a set of assets and runs {@code onLoaded} once all of them are available. The assets
+ * themselves are loaded incrementally by {@link Main#render()}, so this screen only has to draw.
+ */
+public class LoadingScreen implements Screen {
+    private final MyAssetManager assetManager;
+    private final String[] requiredAssets;
+    private final Runnable onLoaded;
+    private final ScreenViewport viewport;
+    private final ShapeRenderer shapeRenderer;
+    private final SpriteBatch batch;
+    private final BitmapFont font;
+    private float displayedProgress = 0f;
+    private float stateTime = 0f;
+    private boolean finished = false;
+
+    public LoadingScreen(Main game, String[] requiredAssets, Runnable onLoaded) {
+        this.assetManager = game.assetManager;
+        this.requiredAssets = requiredAssets;
+        this.onLoaded = onLoaded;
+        assetManager.queue(requiredAssets);
+        this.viewport = new ScreenViewport();
+        this.shapeRenderer = new ShapeRenderer();
+        this.batch = new SpriteBatch();
+        this.font = new BitmapFont();
+    }
+
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(null);
+    }
+
+    @Override
+    public void render(float delta) {
+        if (!finished && assetManager.isLoaded(requiredAssets)) {
+            finished = true;
+            onLoaded.run();
+            return;
+        }
+
+        stateTime += delta;
+        float progress = assetManager.getProgress(requiredAssets);
+        displayedProgress += (progress - displayedProgress) * Math.min(1f, delta * 10f);
+
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        viewport.apply(true);
+
+        float barX = (viewport.getWorldWidth() - Constants.Loading.BAR_WIDTH) / 2;
+        float barY = (viewport.getWorldHeight() - Constants.Loading.BAR_HEIGHT) / 2;
+
+        shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        shapeRenderer.setColor(Color.GRAY);
+        shapeRenderer.rect(barX, barY, Constants.Loading.BAR_WIDTH, Constants.Loading.BAR_HEIGHT);
+        shapeRenderer.end();
+
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(Color.WHITE);
+        shapeRenderer.rect(barX, barY, Constants.Loading.BAR_WIDTH * displayedProgress, Constants.Loading.BAR_HEIGHT);
+        // Small orbiting dot so the screen visibly keeps running while a large sheet is being decoded
+        float dotAngle = stateTime * MathUtils.PI2;
+        shapeRenderer.circle(barX + Constants.Loading.BAR_WIDTH / 2 + MathUtils.cos(dotAngle) * 40f,
+            barY + Constants.Loading.BAR_HEIGHT * 4 + MathUtils.sin(dotAngle) * 10f, 4f);
+        shapeRenderer.end();
+
+        batch.setProjectionMatrix(viewport.getCamera().combined);
+        batch.begin();
+        font.draw(batch, "Loading " + MathUtils.round(progress * 100) + "%", barX, barY - Constants.Loading.BAR_HEIGHT);
+        batch.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        shapeRenderer.dispose();
+        batch.dispose();
+        font.dispose();
+    }
+}
@@ -24,7 +24,7 @@ public class MenuScreen implements Screen {
         this.game = game;
         stage = new Stage(new ScreenViewport());
         Gdx.input.setInputProcessor(stage);
-        skin = new Skin(Gdx.files.internal("skin/default/skin/uiskin.json"));
+        skin = game.assetManager.get(MyAssetManager.SKIN, Skin.class);
 
         // Create buttons
         TextButton playButton = new TextButton("Play", skin);
@@ -35,7 +35,16 @@ public class MenuScreen implements Screen {
         playButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                game.setScreen(new SolarSystemScreen(game));
+                if (assetManager.isLoaded(assetManager.getWorldAssets())) {
+                    game.setScreen(new SolarSystemScreen(game));
+                } else {
+                    game.setScreen(new LoadingScreen(game, assetManager.getWorldAssets(), new Runnable() {
+                        @Override
+                        public void run() {
+                            game.setScreen(new SolarSystemScreen(game));
+                        }
+                    }));
+                }
             }
         });
 
@@ -102,6 +111,5 @@ public class MenuScreen implements Screen {
     @Override
     public void dispose() {
         stage.dispose();
-        skin.dispose();
     }
 }
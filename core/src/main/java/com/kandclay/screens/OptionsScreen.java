@@ -11,6 +11,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.kandclay.Main;
+import com.kandclay.managers.MyAssetManager;
 import com.kandclay.screens.MenuScreen;
 
 public class OptionsScreen implements Screen {
@@ -22,7 +23,7 @@ public class OptionsScreen implements Screen {
         this.game = game;
         stage = new Stage(new ScreenViewport());
         Gdx.input.setInputProcessor(stage);
-        skin = new Skin(Gdx.files.internal("skin/default/skin/uiskin.json"));
+        skin = game.assetManager.get(MyAssetManager.SKIN, Skin.class);
 
         // Create button to toggle orbit direction
         TextButton toggleOrbitButton = new TextButton("Toggle Orbit Direction", skin);
@@ -36,6 +37,17 @@ public class OptionsScreen implements Screen {
             }
         });
 
+        // Create button to switch between sprite sheets and shaded spheres
+        final TextButton sphereBodiesButton = new TextButton(sphereBodiesText(), skin);
+
+        sphereBodiesButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                game.sphereBodies = !game.sphereBodies;
+                sphereBodiesButton.setText(sphereBodiesText());
+            }
+        });
+
         // Create back button
         TextButton backButton = new TextButton("Back", skin);
 
@@ -53,11 +65,17 @@ public class OptionsScreen implements Screen {
         table.center();
         table.add(toggleOrbitButton).size(200, 100).uniformX();
         table.row().pad(10, 0, 10, 0);
+        table.add(sphereBodiesButton).size(200, 100).uniformX();
+        table.row().pad(10, 0, 10, 0);
         table.add(backButton).size(200, 100).uniformX();
 
         stage.addActor(table);
     }
 
+    private String sphereBodiesText() {
+        return game.sphereBodies ? "Bodies: Spheres" : "Bodies: Sprites";
+    }
+
     @Override
     public void show() {
     }
@@ -89,6 +107,5 @@ public class OptionsScreen implements Screen {
     @Override
     public void dispose() {
         stage.dispose();
-        skin.dispose();
     }
 }
@@ -3,10 +3,13 @@ package com.kandclay.screens;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 
@@ -14,11 +17,21 @@ import com.kandclay.Constants;
 import com.kandclay.Main;
 import com.kandclay.SolarSystemUI;
 import com.kandclay.actors.BackgroundActor;
+import com.kandclay.actors.BeltActor;
 import com.kandclay.actors.CelestialBodyActor;
+import com.kandclay.actors.CelestialBodyGroup;
+import com.kandclay.actors.OrbitPathActor;
+import com.kandclay.actors.SphereRenderer;
 import com.kandclay.controllers.CameraController;
 import com.kandclay.managers.CelestialBodyFactory;
+import com.kandclay.managers.FrameProfiler;
+import com.kandclay.managers.FrameProfiler.Phase;
 import com.kandclay.managers.StageManager;
 import com.kandclay.managers.CameraManager;
+import com.kandclay.managers.MyAssetManager;
+import com.kandclay.simulation.BeltField;
+import com.kandclay.simulation.Ephemeris;
+import com.kandclay.simulation.OrbitSimulation;
 import com.kandclay.SolarSystemInputHandler;
 
 public class SolarSystemScreen implements Screen {
@@ -27,32 +40,60 @@ public class SolarSystemScreen implements Screen {
     private SolarSystemInputHandler inputHandler;
     private final StageManager stageManager;
     private SolarSystemUI solarSystemUI;
-    private final Group planetGroup;
+    private final CelestialBodyGroup planetGroup;
     private final Array<CelestialBodyActor> celestialBodies;
     private final CelestialBodyFactory celestialBodyFactory;
     private final CameraManager cameraManager;
+    private final OrbitSimulation simulation;
+    private final Array<BeltActor> belts;
+    private OrbitPathActor orbitPaths;
+    private SphereRenderer sphereRenderer;
+    private final FrameProfiler profiler;
+    private int lastTotalRenderCalls = 0;
 
     public SolarSystemScreen(Main game) {
         this.game = game;
         this.celestialBodies = new Array<CelestialBodyActor>();
-        this.planetGroup = new Group();
+        this.planetGroup = new CelestialBodyGroup();
+        this.simulation = new OrbitSimulation();
+        this.belts = new Array<BeltActor>();
+        this.profiler = new FrameProfiler(Constants.Profiler.WINDOW_FRAMES);
 
         this.cameraManager = new CameraManager(Constants.Camera.VIEWPORT_WIDTH_PIXELS_INIT, Constants.Camera.VIEWPORT_HEIGHT_PIXELS_INIT);
-        this.celestialBodyFactory = new CelestialBodyFactory(game.assetManager, planetGroup, celestialBodies, game);
-        this.stageManager = new StageManager(cameraManager);
+        this.celestialBodyFactory = new CelestialBodyFactory(game.assetManager, planetGroup, celestialBodies, simulation, game);
+        this.stageManager = new StageManager(cameraManager, celestialBodies, simulation);
     }
 
     @Override
     public void show() {
         initializeCameraController();
-        stageManager.initializeBackground(game.assetManager.get("sprites/static/backgroundSimple.png", Texture.class), cameraManager.getViewport().getWorldWidth(), cameraManager.getViewport().getWorldHeight());
-        solarSystemUI = new SolarSystemUI(game.assetManager.get("skin/default/skin/uiskin.json", Skin.class), celestialBodies, cameraController, game);
+        stageManager.initializeBackground(game.assetManager.getRegion(MyAssetManager.BACKGROUND), cameraManager.getViewport().getWorldWidth(), cameraManager.getViewport().getWorldHeight());
+        solarSystemUI = new SolarSystemUI(game.assetManager.get(MyAssetManager.SKIN, Skin.class), celestialBodies, simulation, cameraController, profiler, celestialBodyFactory, game);
         solarSystemUI.initializeUI();
         initializeInputHandler();
 
         setupInputProcessors();
         createSolarSystem();
+        if (game.sphereBodies) {
+            sphereRenderer = new SphereRenderer(game.assetManager.getAtlas());
+            planetGroup.setSphereRenderer(sphereRenderer);
+        }
         toggleOrbitDirections();
+        loadEphemeris();
+    }
+
+    /** Reuses the saved ephemeris if it was fitted to these orbits, otherwise fits and saves a new one. */
+    private void loadEphemeris() {
+        FileHandle file = Gdx.files.local(Constants.Date.EPHEMERIS_FILE);
+        Ephemeris ephemeris = file.exists() ? Ephemeris.load(file) : null;
+        if (ephemeris == null || ephemeris.getBodyCount() != simulation.size()
+            || ephemeris.getFingerprint() != simulation.getOrbitFingerprint()) {
+            double start = (Constants.Date.MIN_YEAR - Constants.Date.EPOCH_YEAR) * (double) Constants.Date.SECONDS_PER_YEAR;
+            double end = (Constants.Date.MAX_YEAR - Constants.Date.EPOCH_YEAR) * (double) Constants.Date.SECONDS_PER_YEAR;
+            ephemeris = Ephemeris.fit(simulation, start, end);
+            ephemeris.save(file);
+        }
+        simulation.setEphemeris(ephemeris);
     }
 
     private void initializeCameraController() {
@@ -82,17 +123,54 @@ public class SolarSystemScreen implements Screen {
         celestialBodyFactory.createPlanet(Constants.Distance.SATURN_TO_SUN_PIXELS, Constants.Radius.SATURN_PIXELS, 3, Constants.OrbitSpeed.SATURN, "saturn", celestialBodies.get(Constants.CelestialBody.SUN.ordinal()));
         celestialBodyFactory.createPlanet(Constants.Distance.URANUS_TO_SUN_PIXELS, Constants.Radius.URANUS_PIXELS, Constants.OrbitSpeed.URANUS, "uranus");
         celestialBodyFactory.createPlanet(Constants.Distance.NEPTUNE_TO_SUN_PIXELS, Constants.Radius.NEPTUNE_PIXELS, Constants.OrbitSpeed.NEPTUNE, "neptune");
+        // Behind the belts and the bodies
+        orbitPaths = new OrbitPathActor(simulation, new Color(1f, 1f, 1f, Constants.OrbitPath.ALPHA));
+        stageManager.getWorldStage().addActor(orbitPaths);
+        createBelts();
         stageManager.getWorldStage().addActor(planetGroup);
     }
 
+    private void createBelts() {
+        belts.add(celestialBodyFactory.createBelt(Constants.Belt.ASTEROID_INNER_PIXELS, Constants.Belt.ASTEROID_OUTER_PIXELS,
+            Constants.Belt.ASTEROID_COUNT, Constants.OrbitSpeed.MARS, Constants.Belt.ASTEROID_SIZE_PIXELS, Color.LIGHT_GRAY));
+        belts.add(celestialBodyFactory.createBelt(Constants.Belt.KUIPER_INNER_PIXELS, Constants.Belt.KUIPER_OUTER_PIXELS,
+            Constants.Belt.KUIPER_COUNT, Constants.OrbitSpeed.NEPTUNE, Constants.Belt.KUIPER_SIZE_PIXELS, Color.SKY));
+        // Added before the planet group so the belts are drawn behind the bodies
+        for (BeltActor belt : belts) {
+            stageManager.getWorldStage().addActor(belt);
+        }
+    }
+
     @Override
     public void render(float delta) {
         clearScreen();
+        solarSystemUI.updateProfilerOverlay(delta);
+        solarSystemUI.updateDate();
+        profiler.beginFrame();
         solarSystemUI.getUiStage().act(delta);
+        profiler.lap(Phase.UI_ACT);
         stageManager.update(delta);
+        profiler.lap(Phase.WORLD_UPDATE);
         inputHandler.update(delta);
-        stageManager.getWorldStage().draw();
+        profiler.lap(Phase.INPUT);
+        stageManager.draw();
+        profiler.lap(Phase.WORLD_DRAW);
         solarSystemUI.getUiStage().draw();
+        profiler.lap(Phase.UI_DRAW);
+        profiler.endFrame(countRenderCalls(), stageManager.getDrawnCount(), stageManager.getCulledCount());
+    }
+
+    /** Render calls of both stages and the sphere renderer since the previous frame, the batches only keep running totals. */
+    private int countRenderCalls() {
+        int total = totalRenderCalls(stageManager.getWorldStage()) + totalRenderCalls(solarSystemUI.getUiStage())
+            + (sphereRenderer == null ? 0 : sphereRenderer.totalRenderCalls);
+        int calls = total - lastTotalRenderCalls;
+        lastTotalRenderCalls = total;
+        return calls;
+    }
+
+    private static int totalRenderCalls(Stage stage) {
+        return stage.getBatch() instanceof SpriteBatch ? ((SpriteBatch) stage.getBatch()).totalRenderCalls : 0;
     }
 
     private void clearScreen() {
@@ -115,6 +193,19 @@ public class SolarSystemScreen implements Screen {
     public void dispose() {
         stageManager.getWorldStage().dispose();
         solarSystemUI.dispose();
+        profiler.dispose();
+        for (BeltActor belt : belts) {
+            belt.dispose();
+        }
+        if (orbitPaths != null) {
+            orbitPaths.dispose();
+        }
+        if (sphereRenderer != null) {
+            sphereRenderer.dispose();
+        }
+        for (CelestialBodyActor body : celestialBodies) {
+            body.releaseStream();
+        }
     }
 
     @Override
@@ -127,6 +218,8 @@ public class SolarSystemScreen implements Screen {
 
     @Override
     public void hide() {
+        // A new screen is made every time the solar system is entered, this one is never shown again
+        dispose();
     }
 
     public Array<CelestialBodyActor> getCelestialBodies() {
@@ -138,6 +231,9 @@ public class SolarSystemScreen implements Screen {
             for (CelestialBodyActor body : celestialBodies) {
                 body.toggleOrbitDirection();
             }
+            for (BeltField belt : simulation.getBelts()) {
+                belt.toggleDirection();
+            }
         }
 
     }
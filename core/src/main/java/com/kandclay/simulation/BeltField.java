@@ -0,0 +1,139 @@
+package com.kandclay.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * A belt of small bodies orbiting a parent between two radii. The particles don't have any per-frame state: each one
+ * is described once by its orbit radius, phase and angular speed, and its angle at any moment is
+ * {@code phase + speed * time}. Stepping the belt therefore only advances its time, the positions are evaluated in
+ * the vertex shader at {@link #getTime()}, which is interpolated between the last two steps like the bodies.
+ * <p>
+ * The time is kept in double like the simulation's. The shader works in float, so it gets the time since an epoch
+ * instead, with the phases advanced to that epoch. Once the inner edge has turned {@link #MAX_EPOCH_ANGLE} radians
+ * past it the epoch moves up to the current time and the {@link #getEpochVersion() version} changes, telling the
+ * renderer to {@link #rebase rebase} its vertices.
+ */
+public class BeltField {
+    public static final int FLOATS_PER_PARTICLE = 4;
+
+    private static final float AXIS_RATIO_INTERPOLATION_SPEED = 0.01f;
+    private static final float AXIS_RATIO_TOLERANCE = 0.01f;
+    /** Angles up to this are accurate to well under a pixel at the outer edge of the Kuiper belt in float. */
+    private static final double MAX_EPOCH_ANGLE = 256;
+
+    private final int parent;
+    private final float innerRadius;
+    private final float outerRadius;
+    private final int count;
+    private final float innerOrbitSpeed;
+    private final float particleSize;
+    private final long seed;
+    private double time = 0;
+    private double previousTime = 0;
+    private double renderTime = 0;
+    private double epoch = 0;
+    private int epochVersion = 0;
+    private float direction = 1f;
+    private float axisRatio = 1f;
+    private float targetAxisRatio = 1f;
+
+    /**
+     * @param innerOrbitSpeed degrees per second at the inner edge, particles further out are slower following
+     *                        Kepler's third law
+     */
+    public BeltField(int parent, float innerRadius, float outerRadius, int count, float innerOrbitSpeed,
+                     float particleSize, long seed) {
+        this.parent = parent;
+        this.innerRadius = innerRadius;
+        this.outerRadius = outerRadius;
+        this.count = count;
+        this.innerOrbitSpeed = innerOrbitSpeed;
+        this.particleSize = particleSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Interleaved radius, phase, angular speed and size of every particle, ready to upload as a vertex buffer. The
+     * phases are those at time 0, {@link #rebase} moves them to the current epoch.
+     */
+    public float[] createVertices() {
+        RandomXS128 random = new RandomXS128(seed);
+        float innerSquared = innerRadius * innerRadius;
+        float outerSquared = outerRadius * outerRadius;
+        float innerAngularSpeed = MathUtils.degreesToRadians * innerOrbitSpeed;
+
+        float[] vertices = new float[count * FLOATS_PER_PARTICLE];
+        for (int i = 0, offset = 0; i < count; i++, offset += FLOATS_PER_PARTICLE) {
+            // Uniform over the area of the annulus rather than over the radius, so the inner edge isn't denser
+            float radius = (float) Math.sqrt(innerSquared + random.nextFloat() * (outerSquared - innerSquared));
+            vertices[offset] = radius;
+            vertices[offset + 1] = random.nextFloat() * MathUtils.PI2;
+            vertices[offset + 2] = innerAngularSpeed * (float) Math.pow(innerRadius / radius, 1.5);
+            vertices[offset + 3] = particleSize * (0.5f + random.nextFloat());
+        }
+        return vertices;
+    }
+
+    /**
+     * Writes the phases of the particles at the current epoch into {@code vertices}, from the vertices at time 0
+     * {@link #createVertices() created} before.
+     */
+    public void rebase(float[] initialVertices, float[] vertices) {
+        for (int offset = 0; offset < vertices.length; offset += FLOATS_PER_PARTICLE) {
+            // The float speed the shader multiplies by, so the particles don't jump when the epoch moves
+            double phase = initialVertices[offset + 1] + initialVertices[offset + 2] * epoch;
+            vertices[offset + 1] = (float) (phase % (2 * Math.PI));
+        }
+    }
+
+    public void step(double delta) {
+        previousTime = time;
+        time += direction * delta;
+        if (Math.abs(targetAxisRatio - axisRatio) > AXIS_RATIO_TOLERANCE) {
+            axisRatio += (targetAxisRatio - axisRatio) * AXIS_RATIO_INTERPOLATION_SPEED;
+        }
+    }
+
+    public void interpolate(float alpha) {
+        renderTime = previousTime + (time - previousTime) * alpha;
+        if (Math.abs(renderTime - epoch) * MathUtils.degreesToRadians * Math.abs(innerOrbitSpeed) > MAX_EPOCH_ANGLE) {
+            epoch = renderTime;
+            epochVersion++;
+        }
+    }
+
+    public int getParent() {
+        return parent;
+    }
+
+    public float getOuterRadius() {
+        return outerRadius;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /** Seconds since the epoch, for the shader. */
+    public float getTime() {
+        return (float) (renderTime - epoch);
+    }
+
+    /** Changes whenever the epoch moves and the vertices need {@link #rebase rebasing}. */
+    public int getEpochVersion() {
+        return epochVersion;
+    }
+
+    public float getAxisRatio() {
+        return axisRatio;
+    }
+
+    public void setTargetAxisRatio(float targetAxisRatio) {
+        this.targetAxisRatio = targetAxisRatio;
+    }
+
+    public void toggleDirection() {
+        direction = -direction;
+    }
+}
@@ -0,0 +1,250 @@
+package com.kandclay.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Precomputed offsets of every body from its parent over a span of time, as Chebyshev polynomials fitted to the
+ * closed form orbits of an {@link OrbitSimulation}. Each body's span is cut into segments a fixed fraction of its period
+ * long, so every segment covers the same arc of the orbit and needs the same number of terms whatever the period.
+ * A lookup is a Clenshaw recurrence over the segment's coefficients, a few multiply-adds per coordinate.
+ * <p>
+ * The fit samples each segment at the Chebyshev nodes, where the interpolating polynomial is close to the best one,
+ * and bodies are fitted in parallel. Coefficients are kept as floats like the positions they produce.
+ */
+public class Ephemeris {
+    /** "EPH1" */
+    private static final int MAGIC = 0x45504831;
+    /** Terms per coordinate per segment. */
+    public static final int DEFAULT_TERMS = 8;
+    private static final int SEGMENTS_PER_ORBIT = 4;
+    private static final int PARALLEL_GRAIN = 8;
+
+    private final double startTime;
+    private final double endTime;
+    private final int terms;
+    private final long fingerprint;
+    private final double[] segmentLengths;
+    private final int[] segmentCounts;
+    // Where each body's segments start in coefficients, a segment is its x terms followed by its y terms
+    private final int[] firstCoefficients;
+    private final float[] coefficients;
+
+    private Ephemeris(double startTime, double endTime, int terms, long fingerprint, double[] segmentLengths,
+                      int[] segmentCounts) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.terms = terms;
+        this.fingerprint = fingerprint;
+        this.segmentLengths = segmentLengths;
+        this.segmentCounts = segmentCounts;
+        firstCoefficients = new int[segmentCounts.length];
+        int total = 0;
+        for (int i = 0; i < segmentCounts.length; i++) {
+            firstCoefficients[i] = total;
+            total += segmentCounts[i] * 2 * terms;
+        }
+        coefficients = new float[total];
+    }
+
+    public static Ephemeris fit(OrbitSimulation simulation, double startTime, double endTime) {
+        return fit(simulation, startTime, endTime, DEFAULT_TERMS, ForkJoinPool.commonPool());
+    }
+
+    /** Fits every body of the simulation over {@code [startTime, endTime]}. */
+    public static Ephemeris fit(OrbitSimulation simulation, double startTime, double endTime, int terms,
+                                ForkJoinPool pool) {
+        if (!(endTime > startTime)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        int bodyCount = simulation.size();
+        double[] segmentLengths = new double[bodyCount];
+        int[] segmentCounts = new int[bodyCount];
+        for (int i = 0; i < bodyCount; i++) {
+            double period = simulation.getPeriod(i);
+            if (period > 0) {
+                segmentLengths[i] = period / SEGMENTS_PER_ORBIT;
+                segmentCounts[i] = (int) Math.ceil((endTime - startTime) / segmentLengths[i]);
+            }
+        }
+        Ephemeris ephemeris = new Ephemeris(startTime, endTime, terms, simulation.getOrbitFingerprint(),
+            segmentLengths, segmentCounts);
+        pool.invoke(ephemeris.new FitTask(simulation, 0, bodyCount));
+        return ephemeris;
+    }
+
+    private void fitBodies(OrbitSimulation simulation, int start, int end) {
+        // cosines[j * terms + k] is T_j at node k
+        double[] cosines = new double[terms * terms];
+        double[] nodes = new double[terms];
+        for (int k = 0; k < terms; k++) {
+            double angle = Math.PI * (k + 0.5) / terms;
+            nodes[k] = Math.cos(angle);
+            for (int j = 0; j < terms; j++) {
+                cosines[j * terms + k] = Math.cos(j * angle);
+            }
+        }
+        double[] offset = new double[2];
+        double[] sampleX = new double[terms];
+        double[] sampleY = new double[terms];
+        for (int i = start; i < end; i++) {
+            double length = segmentLengths[i];
+            for (int segment = 0; segment < segmentCounts[i]; segment++) {
+                double segmentStart = startTime + segment * length;
+                for (int k = 0; k < terms; k++) {
+                    simulation.evaluateOffset(i, segmentStart + (nodes[k] + 1) / 2 * length, offset);
+                    sampleX[k] = offset[0];
+                    sampleY[k] = offset[1];
+                }
+                int first = firstCoefficients[i] + segment * 2 * terms;
+                for (int j = 0; j < terms; j++) {
+                    double sumX = 0;
+                    double sumY = 0;
+                    for (int k = 0; k < terms; k++) {
+                        sumX += sampleX[k] * cosines[j * terms + k];
+                        sumY += sampleY[k] * cosines[j * terms + k];
+                    }
+                    // The constant term carries half the weight of the others
+                    double scale = (j == 0 ? 1.0 : 2.0) / terms;
+                    coefficients[first + j] = (float) (sumX * scale);
+                    coefficients[first + terms + j] = (float) (sumY * scale);
+                }
+            }
+        }
+    }
+
+    private class FitTask extends RecursiveAction {
+        private final OrbitSimulation simulation;
+        private final int start;
+        private final int end;
+
+        FitTask(OrbitSimulation simulation, int start, int end) {
+            this.simulation = simulation;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= PARALLEL_GRAIN) {
+                fitBodies(simulation, start, end);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new FitTask(simulation, start, middle), new FitTask(simulation, middle, end));
+        }
+    }
+
+    public boolean covers(double time) {
+        return time >= startTime && time <= endTime;
+    }
+
+    /** Writes the body's offset from its parent at {@code time}, which should be {@link #covers covered}, into out. */
+    public void evaluate(int body, double time, float[] out) {
+        int count = segmentCounts[body];
+        if (count == 0) {
+            out[0] = 0;
+            out[1] = 0;
+            return;
+        }
+        double length = segmentLengths[body];
+        double local = time - startTime;
+        int segment = Math.min(Math.max((int) (local / length), 0), count - 1);
+        // Maps the segment onto [-1, 1]
+        float u = (float) (2 * (local - segment * length) / length - 1);
+        float twoU = 2 * u;
+        int first = firstCoefficients[body] + segment * 2 * terms;
+        float x1 = 0, x2 = 0, y1 = 0, y2 = 0;
+        for (int j = terms - 1; j >= 1; j--) {
+            float x0 = coefficients[first + j] + twoU * x1 - x2;
+            float y0 = coefficients[first + terms + j] + twoU * y1 - y2;
+            x2 = x1;
+            x1 = x0;
+            y2 = y1;
+            y1 = y0;
+        }
+        out[0] = coefficients[first] + u * x1 - x2;
+        out[1] = coefficients[first + terms] + u * y1 - y2;
+    }
+
+    public int getBodyCount() {
+        return segmentCounts.length;
+    }
+
+    /** The {@link OrbitSimulation#getOrbitFingerprint()} of the orbits this was fitted to. */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public double getEndTime() {
+        return endTime;
+    }
+
+    /** Writes the header, then each body's segment length and count, then all the coefficients. */
+    public void save(FileHandle file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file.write(false)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeDouble(startTime);
+            out.writeDouble(endTime);
+            out.writeInt(terms);
+            out.writeInt(segmentCounts.length);
+            for (int i = 0; i < segmentCounts.length; i++) {
+                out.writeDouble(segmentLengths[i]);
+                out.writeInt(segmentCounts[i]);
+            }
+            for (float coefficient : coefficients) {
+                out.writeFloat(coefficient);
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write the ephemeris " + file, e);
+        }
+    }
+
+    /** Reads a file written by {@link #save}, or returns null if it isn't one or is incomplete. */
+    public static Ephemeris load(FileHandle file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.read()))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            long fingerprint = in.readLong();
+            double startTime = in.readDouble();
+            double endTime = in.readDouble();
+            int terms = in.readInt();
+            int bodyCount = in.readInt();
+            if (terms < 1 || bodyCount < 0) {
+                return null;
+            }
+            double[] segmentLengths = new double[bodyCount];
+            int[] segmentCounts = new int[bodyCount];
+            for (int i = 0; i < bodyCount; i++) {
+                segmentLengths[i] = in.readDouble();
+                segmentCounts[i] = in.readInt();
+            }
+            Ephemeris ephemeris = new Ephemeris(startTime, endTime, terms, fingerprint, segmentLengths, segmentCounts);
+            float[] coefficients = ephemeris.coefficients;
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = in.readFloat();
+            }
+            return ephemeris;
+        } catch (EOFException e) {
+            // Cut short, e.g. by a crash while saving
+            return null;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read the ephemeris " + file, e);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.kandclay.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bodies moving under their mutual Newtonian gravity, integrated with the kick-drift-kick leapfrog, which is
+ * symplectic and so keeps orbits from slowly gaining or losing energy. Accelerations come from a Barnes-Hut quadtree:
+ * a group of bodies that looks small from where a body is, {@code size / distance < theta}, pulls as a single mass at
+ * its centre of mass, which makes a force pass O(n log n). The tree is built on the calling thread, the forces on the
+ * bodies are then evaluated in parallel.
+ * <p>
+ * Masses are given as gravitational parameters (G times the mass), so G doesn't appear anywhere. Bodies with a zero
+ * parameter are test particles: they are pulled like the others but are left out of the tree.
+ */
+public class GravityField {
+    private static final double THETA = 0.5;
+    /** Keeps close encounters from producing huge accelerations, in pixels. */
+    private static final double SOFTENING = 4;
+    // Below this the bodies share a leaf instead of splitting further, only reached by bodies almost on top of each other
+    private static final int MAX_TREE_DEPTH = 32;
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static final int PARALLEL_GRAIN = 512;
+    private static final int EMPTY = -1;
+    private static final int SHARED = -2;
+
+    private final ForkJoinPool pool;
+    private int size = 0;
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private double[] previousX = new double[16];
+    private double[] previousY = new double[16];
+    private double[] vx = new double[16];
+    private double[] vy = new double[16];
+    private double[] ax = new double[16];
+    private double[] ay = new double[16];
+    private double[] gravitationalParameters = new double[16];
+    private boolean accelerationsValid = false;
+
+    // Quadtree, node 0 is the root and the four children of a node are stored next to each other from firstChild
+    private int nodeCount = 0;
+    private int[] firstChild = new int[64];
+    private int[] nodeBody = new int[64];
+    private double[] nodeMass = new double[64];
+    private double[] nodeX = new double[64];
+    private double[] nodeY = new double[64];
+    private double[] centerX = new double[64];
+    private double[] centerY = new double[64];
+    private double[] halfSize = new double[64];
+
+    public GravityField(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Adds a body and returns its index, which is the number of bodies added before it. */
+    public int add(double positionX, double positionY, double velocityX, double velocityY, double gravitationalParameter) {
+        if (size == x.length) {
+            grow(size * 2);
+        }
+        int index = size++;
+        x[index] = positionX;
+        y[index] = positionY;
+        previousX[index] = positionX;
+        previousY[index] = positionY;
+        vx[index] = velocityX;
+        vy[index] = velocityY;
+        gravitationalParameters[index] = gravitationalParameter;
+        accelerationsValid = false;
+        return index;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        ax = Arrays.copyOf(ax, capacity);
+        ay = Arrays.copyOf(ay, capacity);
+        gravitationalParameters = Arrays.copyOf(gravitationalParameters, capacity);
+    }
+
+    /** Shifts every velocity so the total momentum is zero, otherwise the whole system drifts off the screen. */
+    public void removeDrift() {
+        double totalMass = 0;
+        double momentumX = 0;
+        double momentumY = 0;
+        for (int i = 0; i < size; i++) {
+            totalMass += gravitationalParameters[i];
+            momentumX += gravitationalParameters[i] * vx[i];
+            momentumY += gravitationalParameters[i] * vy[i];
+        }
+        if (totalMass == 0) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            vx[i] -= momentumX / totalMass;
+            vy[i] -= momentumY / totalMass;
+        }
+    }
+
+    /**
+     * Advances {@code delta} seconds in {@code substeps} equal leapfrog steps. The positions before the first one are
+     * kept for {@link #getX(int, float)}.
+     */
+    public void step(double delta, int substeps) {
+        System.arraycopy(x, 0, previousX, 0, size);
+        System.arraycopy(y, 0, previousY, 0, size);
+        if (!accelerationsValid) {
+            computeAccelerations();
+        }
+        double dt = delta / substeps;
+        double halfDt = dt / 2;
+        for (int step = 0; step < substeps; step++) {
+            for (int i = 0; i < size; i++) {
+                vx[i] += ax[i] * halfDt;
+                vy[i] += ay[i] * halfDt;
+                x[i] += vx[i] * dt;
+                y[i] += vy[i] * dt;
+            }
+            computeAccelerations();
+            for (int i = 0; i < size; i++) {
+                vx[i] += ax[i] * halfDt;
+                vy[i] += ay[i] * halfDt;
+            }
+        }
+    }
+
+    private void computeAccelerations() {
+        buildTree();
+        if (size < PARALLEL_THRESHOLD) {
+            computeAccelerations(0, size, new int[4 * MAX_TREE_DEPTH + 4]);
+        } else {
+            pool.invoke(new ForceTask(0, size));
+        }
+        accelerationsValid = true;
+    }
+
+    private void buildTree() {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (gravitationalParameters[i] > 0) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+        }
+        nodeCount = 0;
+        if (minX > maxX) {
+            // No massive body, nothing pulls
+            newNode(0, 0, 1);
+            return;
+        }
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, Math.max(maxX - minX, maxY - minY) / 2 + 1);
+        for (int i = 0; i < size; i++) {
+            if (gravitationalParameters[i] > 0) {
+                insert(i);
+            }
+        }
+        // Mass weighted sums to centres of mass
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeMass[node] > 0) {
+                nodeX[node] /= nodeMass[node];
+                nodeY[node] /= nodeMass[node];
+            }
+        }
+    }
+
+    /** Walks down from the root adding the body's mass to every node it passes, splitting the leaf it ends in if taken. */
+    private void insert(int body) {
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            addMass(node, body);
+            if (firstChild[node] >= 0) {
+                node = childContaining(node, x[body], y[body]);
+                depth++;
+            } else if (nodeBody[node] == EMPTY) {
+                nodeBody[node] = body;
+                return;
+            } else if (depth >= MAX_TREE_DEPTH || nodeBody[node] == SHARED) {
+                nodeBody[node] = SHARED;
+                return;
+            } else {
+                int resident = nodeBody[node];
+                split(node);
+                int child = childContaining(node, x[resident], y[resident]);
+                addMass(child, resident);
+                nodeBody[child] = resident;
+                node = childContaining(node, x[body], y[body]);
+                depth++;
+            }
+        }
+    }
+
+    private void addMass(int node, int body) {
+        double mass = gravitationalParameters[body];
+        nodeMass[node] += mass;
+        nodeX[node] += mass * x[body];
+        nodeY[node] += mass * y[body];
+    }
+
+    private void split(int node) {
+        double quarter = halfSize[node] / 2;
+        int first = newNode(centerX[node] - quarter, centerY[node] - quarter, quarter);
+        newNode(centerX[node] + quarter, centerY[node] - quarter, quarter);
+        newNode(centerX[node] - quarter, centerY[node] + quarter, quarter);
+        newNode(centerX[node] + quarter, centerY[node] + quarter, quarter);
+        firstChild[node] = first;
+        nodeBody[node] = EMPTY;
+    }
+
+    private int childContaining(int node, double px, double py) {
+        int quadrant = (px >= centerX[node] ? 1 : 0) + (py >= centerY[node] ? 2 : 0);
+        return firstChild[node] + quadrant;
+    }
+
+    private int newNode(double nodeCenterX, double nodeCenterY, double nodeHalfSize) {
+        if (nodeCount == firstChild.length) {
+            int capacity = nodeCount * 2;
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nodeBody = Arrays.copyOf(nodeBody, capacity);
+            nodeMass = Arrays.copyOf(nodeMass, capacity);
+            nodeX = Arrays.copyOf(nodeX, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            halfSize = Arrays.copyOf(halfSize, capacity);
+        }
+        int node = nodeCount++;
+        firstChild[node] = -1;
+        nodeBody[node] = EMPTY;
+        nodeMass[node] = 0;
+        nodeX[node] = 0;
+        nodeY[node] = 0;
+        centerX[node] = nodeCenterX;
+        centerY[node] = nodeCenterY;
+        halfSize[node] = nodeHalfSize;
+        return node;
+    }
+
+    /** Reads the tree only, so any number of these can run at once on disjoint ranges of bodies. */
+    private void computeAccelerations(int start, int end, int[] stack) {
+        double thetaSquared = THETA * THETA;
+        double softeningSquared = SOFTENING * SOFTENING;
+        for (int i = start; i < end; i++) {
+            double px = x[i];
+            double py = y[i];
+            double accelerationX = 0;
+            double accelerationY = 0;
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                double mass = nodeMass[node];
+                if (mass == 0 || nodeBody[node] == i) {
+                    continue;
+                }
+                double dx = nodeX[node] - px;
+                double dy = nodeY[node] - py;
+                double distanceSquared = dx * dx + dy * dy;
+                double size = 2 * halfSize[node];
+                int child = firstChild[node];
+                if (child < 0 || size * size < thetaSquared * distanceSquared) {
+                    // A shared leaf holding body i also pulls with i's own mass, softening keeps that negligible
+                    double inverse = 1 / Math.sqrt(distanceSquared + softeningSquared);
+                    double factor = mass * inverse * inverse * inverse;
+                    accelerationX += factor * dx;
+                    accelerationY += factor * dy;
+                } else {
+                    stack[top++] = child;
+                    stack[top++] = child + 1;
+                    stack[top++] = child + 2;
+                    stack[top++] = child + 3;
+                }
+            }
+            ax[i] = accelerationX;
+            ay[i] = accelerationY;
+        }
+    }
+
+    private class ForceTask extends RecursiveAction {
+        private final int start;
+        private final int end;
+
+        ForceTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= PARALLEL_GRAIN) {
+                computeAccelerations(start, end, new int[4 * MAX_TREE_DEPTH + 4]);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ForceTask(start, middle), new ForceTask(middle, end));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getVelocityX(int index) {
+        return vx[index];
+    }
+
+    public double getVelocityY(int index) {
+        return vy[index];
+    }
+
+    /** Position at {@code alpha} between the start and the end of the last step. */
+    public float getX(int index, float alpha) {
+        return (float) (previousX[index] + (x[index] - previousX[index]) * alpha);
+    }
+
+    public float getY(int index, float alpha) {
+        return (float) (previousY[index] + (y[index] - previousY[index]) * alpha);
+    }
+}
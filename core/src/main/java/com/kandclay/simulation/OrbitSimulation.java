@@ -0,0 +1,740 @@
+package com.kandclay.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.telemetry.Telemetry;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Orbit state of every celestial body, stored as parallel primitive arrays. Bodies are referred to by the index
+ * returned when they are added.
+ * <p>
+ * Every orbit is a Keplerian ellipse around its parent, so a body's position is a closed-form function of the
+ * simulated time: {@link #setTime(double)} jumps to any date at the cost of a single frame, with nothing accumulated
+ * that could drift. {@link #update(float)} advances the time in fixed steps of {@link #FIXED_STEP_SECONDS}, scaled by
+ * the time warp, and then places the bodies once, between the last two steps.
+ * <p>
+ * Placing first finds every body's anomaly, solving Kepler's equation for the eccentric orbits, then runs level by
+ * level through the hierarchy (star, planets, moons, ...), so every parent is placed before its children regardless of
+ * insertion order. Large batches are split across a {@link ForkJoinPool}, and each level only starts once the previous
+ * one has finished.
+ * <p>
+ * With gravity enabled the orbits stop being kinematic: the bodies are handed over to a {@link GravityField} with the
+ * velocities of their current orbits and from then on move under their mutual attraction.
+ * <p>
+ * An {@link Ephemeris} fitted to the orbits can replace the propagator within its time span. Any change to an orbit
+ * makes it stale, and it is dropped. Adding a root or a free body doesn't, as neither has an orbit to look up.
+ */
+public class OrbitSimulation {
+    /** Real time covered by one step, independent of the frame rate. */
+    public static final float FIXED_STEP_SECONDS = 1 / 60f;
+    /** Newton's method below converges in a fixed number of iterations up to this eccentricity. */
+    public static final float MAX_ECCENTRICITY = 0.9f;
+    /** After a longer hitch the remaining time is dropped rather than caught up, which would only make the next frame slower. */
+    private static final int MAX_STEPS_PER_UPDATE = 5;
+    private static final int KEPLER_ITERATIONS = 6;
+    /** Longest leapfrog step in simulated seconds, about seventy steps for the fastest planet's orbit. */
+    private static final float MAX_GRAVITY_STEP_SECONDS = 0.25f;
+    /** Caps the cost of a fixed step at high time warps, the leapfrog steps get longer beyond it. */
+    private static final int MAX_GRAVITY_SUBSTEPS = 64;
+    // Time between the two placements used to find the velocity of an orbit when gravity is enabled
+    private static final double VELOCITY_PROBE_SECONDS = 1e-2;
+    private static final int INITIAL_CAPACITY = 16;
+    /** Batches smaller than this are run on the calling thread, forking would cost more than it saves. */
+    private static final int PARALLEL_THRESHOLD = 16384;
+    private static final int PARALLEL_GRAIN = 4096;
+    private static final float AXIS_RATIO_INTERPOLATION_SPEED = 0.01f;
+    private static final float AXIS_RATIO_TOLERANCE = 0.01f;
+
+    private int size = 0;
+    private int[] parents;
+    private int[] depths;
+    // Orbit: semi-axes, eccentricity, and the rotation of the orbital plane projected onto the screen plane
+    private float[] semiMajorAxes;
+    private float[] semiMinorAxes;
+    private float[] eccentricities;
+    private float[] orientations;
+    // Motion: mean anomaly = meanAnomaliesAtEpoch + directions * meanMotions * time, in radians
+    private double[] meanAnomaliesAtEpoch;
+    private double[] meanMotions;
+    private float[] directions;
+    private float[] meanAnomalies;
+    private float[] eccentricAnomalies;
+    private float[] axisRatios;
+    private float[] targetAxisRatios;
+    private float[] x;
+    private float[] y;
+    private float[] scales;
+    private double[] gravitationalParameters;
+    // Of the bodies without an orbit, kept while gravity is off so they carry on when it is enabled again
+    private double[] freeVelocitiesX;
+    private double[] freeVelocitiesY;
+
+    // Body indices grouped by depth, level n spans order[levelStarts[n]] to order[levelStarts[n + 1] - 1]
+    private int[] order;
+    private int[] levelStarts = new int[0];
+    private int levelCount = 0;
+    private boolean levelsDirty = true;
+
+    private final ForkJoinPool pool;
+    private final Array<BeltField> belts = new Array<BeltField>();
+    private double time = 0;
+    private double previousTime = 0;
+    private double placedTime = 0;
+    private float timeWarp = 1f;
+    private float accumulator = 0f;
+    private GravityField gravity;
+    private Ephemeris ephemeris;
+    private int shapeVersion = 0;
+    private final float[] ephemerisOffset = new float[2];
+    // Set while finding orbit velocities, gravity works in the orbital plane without the view tilt
+    private boolean ignoreAxisRatios = false;
+
+    public OrbitSimulation() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public OrbitSimulation(int capacity) {
+        this(capacity, ForkJoinPool.commonPool());
+    }
+
+    public OrbitSimulation(int capacity, ForkJoinPool pool) {
+        this.pool = pool;
+        capacity = Math.max(1, capacity);
+        parents = new int[capacity];
+        depths = new int[capacity];
+        semiMajorAxes = new float[capacity];
+        semiMinorAxes = new float[capacity];
+        eccentricities = new float[capacity];
+        orientations = new float[capacity * 4];
+        meanAnomaliesAtEpoch = new double[capacity];
+        meanMotions = new double[capacity];
+        directions = new float[capacity];
+        meanAnomalies = new float[capacity];
+        eccentricAnomalies = new float[capacity];
+        axisRatios = new float[capacity];
+        targetAxisRatios = new float[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        scales = new float[capacity];
+        gravitationalParameters = new double[capacity];
+        freeVelocitiesX = new double[capacity];
+        freeVelocitiesY = new double[capacity];
+        order = new int[capacity];
+    }
+
+    /** Adds a body that doesn't orbit anything and stays at the given centre. */
+    public int addRoot(float centerX, float centerY) {
+        int index = add(-1, 0, 0);
+        x[index] = centerX;
+        y[index] = centerY;
+        return index;
+    }
+
+    /**
+     * Adds a body on a circular orbit of radius {@code distance} around {@code parent}, moving {@code orbitSpeed}
+     * degrees per second. {@link #setElements(int, OrbitalElements)} makes it elliptical.
+     */
+    public int addBody(int parent, float distance, float orbitSpeed) {
+        if (parent < 0 || parent >= size) {
+            throw new IllegalArgumentException("Parent " + parent + " doesn't exist");
+        }
+        int index = add(parent, distance, orbitSpeed);
+        x[index] = x[parent] + distance;
+        y[index] = y[parent];
+        return index;
+    }
+
+    private int add(int parent, float distance, float orbitSpeed) {
+        if (size == parents.length) {
+            grow(size * 2);
+        }
+        int index = size++;
+        parents[index] = parent;
+        depths[index] = parent < 0 ? 0 : depths[parent] + 1;
+        semiMajorAxes[index] = distance;
+        semiMinorAxes[index] = distance;
+        eccentricities[index] = 0f;
+        setOrientation(index, 0, 0, 0);
+        meanMotions[index] = MathUtils.degreesToRadians * orbitSpeed;
+        directions[index] = 1f;
+        meanAnomaliesAtEpoch[index] = -meanMotions[index] * time;
+        meanAnomalies[index] = 0f;
+        eccentricAnomalies[index] = 0f;
+        axisRatios[index] = 1f;
+        targetAxisRatios[index] = 1f;
+        scales[index] = 1f;
+        gravitationalParameters[index] = 0;
+        freeVelocitiesX[index] = 0;
+        freeVelocitiesY[index] = 0;
+        levelsDirty = true;
+        if (parent >= 0) {
+            // Bodies without an orbit are never looked up, the ephemeris only places the levels below the roots
+            ephemeris = null;
+        }
+        shapeVersion++;
+        return index;
+    }
+
+    private void grow(int capacity) {
+        parents = Arrays.copyOf(parents, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        semiMajorAxes = Arrays.copyOf(semiMajorAxes, capacity);
+        semiMinorAxes = Arrays.copyOf(semiMinorAxes, capacity);
+        eccentricities = Arrays.copyOf(eccentricities, capacity);
+        orientations = Arrays.copyOf(orientations, capacity * 4);
+        meanAnomaliesAtEpoch = Arrays.copyOf(meanAnomaliesAtEpoch, capacity);
+        meanMotions = Arrays.copyOf(meanMotions, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        meanAnomalies = Arrays.copyOf(meanAnomalies, capacity);
+        eccentricAnomalies = Arrays.copyOf(eccentricAnomalies, capacity);
+        axisRatios = Arrays.copyOf(axisRatios, capacity);
+        targetAxisRatios = Arrays.copyOf(targetAxisRatios, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        scales = Arrays.copyOf(scales, capacity);
+        gravitationalParameters = Arrays.copyOf(gravitationalParameters, capacity);
+        freeVelocitiesX = Arrays.copyOf(freeVelocitiesX, capacity);
+        freeVelocitiesY = Arrays.copyOf(freeVelocitiesY, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+
+    /**
+     * Adds a body that follows no orbit, e.g. a comet, at the given position and velocity. It only moves while gravity
+     * is enabled, otherwise it stays where it is like a root and keeps its velocity for when gravity is enabled.
+     */
+    public int addFreeBody(float positionX, float positionY, float velocityX, float velocityY,
+                           double gravitationalParameter) {
+        int index = add(-1, 0, 0);
+        x[index] = positionX;
+        y[index] = positionY;
+        gravitationalParameters[index] = gravitationalParameter;
+        freeVelocitiesX[index] = velocityX;
+        freeVelocitiesY[index] = velocityY;
+        if (gravity != null) {
+            gravity.add(positionX, positionY, velocityX, velocityY, gravitationalParameter);
+        }
+        return index;
+    }
+
+    /** Sets the body's mass as a gravitational parameter, G times the mass, in pixels cubed per second squared. */
+    public void setGravitationalParameter(int index, double gravitationalParameter) {
+        gravitationalParameters[index] = gravitationalParameter;
+    }
+
+    /**
+     * Gives the body's orbit the shape and orientation of the elements, keeping its semi-major axis and speed. The mean
+     * anomaly of the elements is taken as the body's mean anomaly at time 0, the epoch.
+     */
+    public void setElements(int index, OrbitalElements elements) {
+        ephemeris = null;
+        shapeVersion++;
+        float eccentricity = elements.eccentricity;
+        eccentricities[index] = eccentricity;
+        semiMinorAxes[index] = semiMajorAxes[index] * (float) Math.sqrt(1 - eccentricity * eccentricity);
+        setOrientation(index, MathUtils.degreesToRadians * elements.inclination,
+            MathUtils.degreesToRadians * elements.argumentOfPeriapsis,
+            MathUtils.degreesToRadians * elements.longitudeOfAscendingNode);
+        meanAnomaliesAtEpoch[index] = MathUtils.degreesToRadians * elements.meanAnomalyAtEpoch;
+    }
+
+    /**
+     * Rotates the orbital plane by the argument of periapsis, tilts it by the inclination around the line of nodes and
+     * turns it by the longitude of the ascending node, then keeps the part that maps the plane onto the screen.
+     */
+    private void setOrientation(int index, float inclination, float argumentOfPeriapsis, float ascendingNode) {
+        double cosNode = Math.cos(ascendingNode);
+        double sinNode = Math.sin(ascendingNode);
+        double cosPeriapsis = Math.cos(argumentOfPeriapsis);
+        double sinPeriapsis = Math.sin(argumentOfPeriapsis);
+        double cosInclination = Math.cos(inclination);
+        int offset = index * 4;
+        orientations[offset] = (float) (cosNode * cosPeriapsis - sinNode * sinPeriapsis * cosInclination);
+        orientations[offset + 1] = (float) (-cosNode * sinPeriapsis - sinNode * cosPeriapsis * cosInclination);
+        orientations[offset + 2] = (float) (sinNode * cosPeriapsis + cosNode * sinPeriapsis * cosInclination);
+        orientations[offset + 3] = (float) (-sinNode * sinPeriapsis + cosNode * cosPeriapsis * cosInclination);
+    }
+
+    /** Counting sort of the body indices by depth, only redone after bodies were added. */
+    private void rebuildLevels() {
+        int maxDepth = 0;
+        for (int i = 0; i < size; i++) {
+            maxDepth = Math.max(maxDepth, depths[i]);
+        }
+        levelCount = size == 0 ? 0 : maxDepth + 1;
+        if (levelStarts.length < levelCount + 1) {
+            levelStarts = new int[levelCount + 1];
+        }
+        Arrays.fill(levelStarts, 0);
+        for (int i = 0; i < size; i++) {
+            levelStarts[depths[i] + 1]++;
+        }
+        for (int level = 0; level < levelCount; level++) {
+            levelStarts[level + 1] += levelStarts[level];
+        }
+        int[] next = Arrays.copyOf(levelStarts, levelCount);
+        for (int i = 0; i < size; i++) {
+            order[next[depths[i]]++] = i;
+        }
+        levelsDirty = false;
+    }
+
+    public void addBelt(BeltField belt) {
+        belts.add(belt);
+    }
+
+    public Array<BeltField> getBelts() {
+        return belts;
+    }
+
+    /**
+     * Adds the frame time to the accumulator, runs as many fixed steps as it holds, then places the bodies between the
+     * last two steps. Returns the number of steps run. The steps and the placement are reported together as one
+     * simulation tick.
+     */
+    public int update(float frameDelta) {
+        Object tick = Telemetry.get().beginSimulationTick();
+        accumulator += frameDelta;
+        int steps = 0;
+        while (accumulator >= FIXED_STEP_SECONDS && steps < MAX_STEPS_PER_UPDATE) {
+            advance(FIXED_STEP_SECONDS);
+            accumulator -= FIXED_STEP_SECONDS;
+            steps++;
+        }
+        if (steps == MAX_STEPS_PER_UPDATE) {
+            accumulator = Math.min(accumulator, FIXED_STEP_SECONDS);
+        }
+        place(previousTime + (time - previousTime) * (accumulator / FIXED_STEP_SECONDS));
+        Telemetry.get().endSimulationTick(tick, size);
+        return steps;
+    }
+
+    /** Advances by exactly {@code delta} seconds of real time and places the bodies at the end of it, one tick. */
+    public void step(float delta) {
+        Object tick = Telemetry.get().beginSimulationTick();
+        advance(delta);
+        place(time);
+        Telemetry.get().endSimulationTick(tick, size);
+    }
+
+    /**
+     * Advances the simulated time by the warped delta. Orbits are closed-form in time, so a step is exact however far a
+     * body turns in it and fast moons need no sub-steps. Only the axis ratios are eased per step.
+     */
+    private void advance(float delta) {
+        float simulationDelta = delta * timeWarp;
+        previousTime = time;
+        time += simulationDelta;
+        if (gravity != null) {
+            int substeps = Math.min(MAX_GRAVITY_SUBSTEPS, Math.max(1, (int) Math.ceil(simulationDelta / MAX_GRAVITY_STEP_SECONDS)));
+            gravity.step(simulationDelta, substeps);
+        }
+        for (BeltField belt : belts) {
+            belt.step(simulationDelta);
+        }
+        for (int i = 0; i < size; i++) {
+            float axisRatioDifference = targetAxisRatios[i] - axisRatios[i];
+            if (Math.abs(axisRatioDifference) > AXIS_RATIO_TOLERANCE) {
+                axisRatios[i] += axisRatioDifference * AXIS_RATIO_INTERPOLATION_SPEED;
+            }
+        }
+    }
+
+    /**
+     * Jumps to the given simulated time, in seconds since the epoch, and places every body there. Only the kinematic
+     * orbits can be evaluated at any time, so this turns gravity off.
+     */
+    public void setTime(double newTime) {
+        disableGravity();
+        for (BeltField belt : belts) {
+            belt.step(newTime - time);
+            belt.interpolate(1f);
+        }
+        time = newTime;
+        previousTime = newTime;
+        accumulator = 0f;
+        place(time);
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    /** Places every body at the given simulated time, which lies between the last two steps. */
+    private void place(double placeTime) {
+        if (levelsDirty) {
+            rebuildLevels();
+        }
+        placedTime = placeTime;
+        float alpha = time == previousTime ? 1f : (float) ((placeTime - previousTime) / (time - previousTime));
+        for (BeltField belt : belts) {
+            belt.interpolate(alpha);
+        }
+        if (gravity != null) {
+            placeFromGravity(alpha);
+            return;
+        }
+        if (ephemeris != null && ephemeris.covers(placeTime)) {
+            computeMeanAnomalies(0, size);
+            placeFromEphemeris(placeTime);
+            return;
+        }
+        if (size < PARALLEL_THRESHOLD) {
+            computeMeanAnomalies(0, size);
+            solveKepler(0, size);
+        } else {
+            pool.invoke(new PlaceTask(0, size, PlaceTask.ANOMALIES));
+        }
+        // Level 0 only holds roots, which don't move
+        for (int level = 1; level < levelCount; level++) {
+            int start = levelStarts[level];
+            int end = levelStarts[level + 1];
+            if (end - start < PARALLEL_THRESHOLD) {
+                placeRange(start, end);
+            } else {
+                // invoke() returns once the whole level is done, which is the barrier before the next level
+                pool.invoke(new PlaceTask(start, end, PlaceTask.POSITIONS));
+            }
+        }
+    }
+
+    private void computeMeanAnomalies(int start, int end) {
+        double t = placedTime;
+        for (int i = start; i < end; i++) {
+            // In double, after a long time or at a high time warp the float product would be too coarse
+            float meanAnomaly = (float) ((meanAnomaliesAtEpoch[i] + directions[i] * meanMotions[i] * t) % (2 * Math.PI));
+            meanAnomalies[i] = meanAnomaly;
+            // Circular orbits are done here, eccentric ones are refined by solveKepler
+            eccentricAnomalies[i] = meanAnomaly;
+        }
+    }
+
+    /**
+     * Solves Kepler's equation for the eccentric orbits in the range, once {@link #computeMeanAnomalies} has run over
+     * it. A contiguous pass over the same range, so large batches are split across the pool along with the mean
+     * anomalies.
+     */
+    private void solveKepler(int start, int end) {
+        for (int i = start; i < end; i++) {
+            float e = eccentricities[i];
+            if (e > 0) {
+                eccentricAnomalies[i] = (float) eccentricAnomaly(meanAnomalies[i], e);
+            }
+        }
+    }
+
+    /**
+     * Solves Kepler's equation {@code M = E - e sin E} for the eccentric anomaly E. Every call runs the same number of
+     * Newton iterations from a second order starting guess, without a data dependent exit, so every eccentric body
+     * costs the same and batches split evenly. Converges to double precision up to {@link #MAX_ECCENTRICITY}.
+     */
+    static double eccentricAnomaly(double meanAnomaly, double e) {
+        double anomaly = meanAnomaly + e * Math.sin(meanAnomaly) * (1 + e * Math.cos(meanAnomaly));
+        for (int iteration = 0; iteration < KEPLER_ITERATIONS; iteration++) {
+            anomaly -= (anomaly - e * Math.sin(anomaly) - meanAnomaly) / (1 - e * Math.cos(anomaly));
+        }
+        return anomaly;
+    }
+
+    /**
+     * Writes the body's offset from its parent at time {@code t}, before the view tilt, into {@code out}. Evaluated
+     * entirely in double precision and reading nothing but the orbit, so it can run on any thread.
+     */
+    public void evaluateOffset(int index, double t, double[] out) {
+        double meanAnomaly = (meanAnomaliesAtEpoch[index] + directions[index] * meanMotions[index] * t) % (2 * Math.PI);
+        double e = eccentricities[index];
+        double anomaly = e > 0 ? eccentricAnomaly(meanAnomaly, e) : meanAnomaly;
+        double planeX = semiMajorAxes[index] * (Math.cos(anomaly) - e);
+        double planeY = semiMinorAxes[index] * Math.sin(anomaly);
+        int offset = index * 4;
+        out[0] = orientations[offset] * planeX + orientations[offset + 1] * planeY;
+        out[1] = orientations[offset + 2] * planeX + orientations[offset + 3] * planeY;
+    }
+
+    /** Seconds per turn, or 0 for bodies that don't orbit. */
+    public double getPeriod(int index) {
+        return meanMotions[index] == 0 ? 0 : 2 * Math.PI / meanMotions[index];
+    }
+
+    /** Changes whenever anything that {@link #evaluateOffset} depends on changes, to tell whether an ephemeris still fits. */
+    public long getOrbitFingerprint() {
+        long hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + parents[i];
+            hash = 31 * hash + Float.floatToIntBits(semiMajorAxes[i]);
+            hash = 31 * hash + Float.floatToIntBits(eccentricities[i]);
+            for (int j = 0; j < 4; j++) {
+                hash = 31 * hash + Float.floatToIntBits(orientations[i * 4 + j]);
+            }
+            hash = 31 * hash + Double.doubleToLongBits(meanAnomaliesAtEpoch[i]);
+            hash = 31 * hash + Double.doubleToLongBits(meanMotions[i]);
+            hash = 31 * hash + Float.floatToIntBits(directions[i]);
+        }
+        return hash;
+    }
+
+    /** Replaces the propagator with the ephemeris within its span, pass null to go back. */
+    public void setEphemeris(Ephemeris ephemeris) {
+        if (ephemeris != null && ephemeris.getBodyCount() != size) {
+            throw new IllegalArgumentException("Ephemeris has " + ephemeris.getBodyCount() + " bodies, simulation " + size);
+        }
+        this.ephemeris = ephemeris;
+    }
+
+    public Ephemeris getEphemeris() {
+        return ephemeris;
+    }
+
+    /** Same as {@link #placeRange} with the offsets read from the ephemeris, in level order as parents go first. */
+    private void placeFromEphemeris(double placeTime) {
+        int start = levelCount > 1 ? levelStarts[1] : size;
+        for (int k = start; k < size; k++) {
+            int i = order[k];
+            int parent = parents[i];
+            ephemeris.evaluate(i, placeTime, ephemerisOffset);
+            float offsetY = ephemerisOffset[1];
+            x[i] = x[parent] + ephemerisOffset[0];
+            y[i] = y[parent] + offsetY * (ignoreAxisRatios ? 1f : axisRatios[i]);
+            float far = MathUtils.clamp(offsetY / semiMajorAxes[i], -1f, 1f);
+            scales[i] = 2 - (0.5f + (1 + far) / 2);
+        }
+    }
+
+    private void placeRange(int start, int end) {
+        for (int k = start; k < end; k++) {
+            int i = order[k];
+            int parent = parents[i];
+            float anomaly = eccentricAnomalies[i];
+
+            // Position in the orbital plane, periapsis along +x
+            float planeX = semiMajorAxes[i] * (MathUtils.cos(anomaly) - eccentricities[i]);
+            float planeY = semiMinorAxes[i] * MathUtils.sin(anomaly);
+            int offset = i * 4;
+            float offsetX = orientations[offset] * planeX + orientations[offset + 1] * planeY;
+            float offsetY = orientations[offset + 2] * planeX + orientations[offset + 3] * planeY;
+
+            x[i] = x[parent] + offsetX;
+            y[i] = y[parent] + offsetY * (ignoreAxisRatios ? 1f : axisRatios[i]);
+            // Bodies further up the screen are further away
+            float far = MathUtils.clamp(offsetY / semiMajorAxes[i], -1f, 1f);
+            scales[i] = 2 - (0.5f + (1 + far) / 2);
+        }
+    }
+
+    private void placeFromGravity(float alpha) {
+        for (int i = 0; i < size; i++) {
+            x[i] = gravity.getX(i, alpha);
+            y[i] = gravity.getY(i, alpha);
+            scales[i] = 1f;
+        }
+    }
+
+    /**
+     * Switches between kinematic orbits and Newtonian gravity. Enabling starts every orbiting body at its current
+     * position with the velocity vis-viva gives for its orbit around its parent's mass, in the direction it is moving,
+     * so each orbit carries on as far as the other bodies allow, and the bodies without an orbit with the velocity they
+     * had when gravity was last disabled, or were added with. Disabling returns every body to its kinematic orbit.
+     */
+    public void setGravityEnabled(boolean enabled) {
+        if (enabled == (gravity != null)) {
+            return;
+        }
+        if (!enabled) {
+            disableGravity();
+            place(time);
+            return;
+        }
+
+        ignoreAxisRatios = true;
+        place(time + VELOCITY_PROBE_SECONDS);
+        float[] probeX = Arrays.copyOf(x, size);
+        float[] probeY = Arrays.copyOf(y, size);
+        place(time);
+        ignoreAxisRatios = false;
+
+        double[] velocityX = new double[size];
+        double[] velocityY = new double[size];
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            int parent = parents[i];
+            if (parent < 0) {
+                velocityX[i] = freeVelocitiesX[i];
+                velocityY[i] = freeVelocitiesY[i];
+                continue;
+            }
+            double relativeX = x[i] - x[parent];
+            double relativeY = y[i] - y[parent];
+            double directionX = (probeX[i] - probeX[parent]) - relativeX;
+            double directionY = (probeY[i] - probeY[parent]) - relativeY;
+            double directionLength = Math.sqrt(directionX * directionX + directionY * directionY);
+            double distance = Math.sqrt(relativeX * relativeX + relativeY * relativeY);
+            double parentMass = gravitationalParameters[parent];
+            double speed = parentMass > 0 && distance > 0
+                ? Math.sqrt(Math.max(0, parentMass * (2 / distance - 1 / semiMajorAxes[i])))
+                : directionLength / VELOCITY_PROBE_SECONDS;
+            if (directionLength > 0) {
+                // Levels are in order, so the parent's velocity is already known
+                velocityX[i] = velocityX[parent] + directionX / directionLength * speed;
+                velocityY[i] = velocityY[parent] + directionY / directionLength * speed;
+            }
+        }
+
+        gravity = new GravityField(pool);
+        for (int i = 0; i < size; i++) {
+            gravity.add(x[i], y[i], velocityX[i], velocityY[i], gravitationalParameters[i]);
+        }
+        gravity.removeDrift();
+        previousTime = time;
+        place(time);
+    }
+
+    /** Leaves the bodies without an orbit where gravity moved them, keeping their velocities. */
+    private void disableGravity() {
+        if (gravity == null) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (parents[i] < 0) {
+                x[i] = gravity.getX(i, 1f);
+                y[i] = gravity.getY(i, 1f);
+                freeVelocitiesX[i] = gravity.getVelocityX(i);
+                freeVelocitiesY[i] = gravity.getVelocityY(i);
+            }
+        }
+        gravity = null;
+    }
+
+    public boolean isGravityEnabled() {
+        return gravity != null;
+    }
+
+    private class PlaceTask extends RecursiveAction {
+        static final int ANOMALIES = 0;
+        static final int POSITIONS = 1;
+
+        private final int start;
+        private final int end;
+        private final int pass;
+
+        PlaceTask(int start, int end, int pass) {
+            this.start = start;
+            this.end = end;
+            this.pass = pass;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= PARALLEL_GRAIN) {
+                if (pass == ANOMALIES) {
+                    computeMeanAnomalies(start, end);
+                    solveKepler(start, end);
+                } else {
+                    placeRange(start, end);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new PlaceTask(start, middle, pass), new PlaceTask(middle, end, pass));
+        }
+    }
+
+    /** Simulated seconds per real second, applied to bodies and belts alike. */
+    public float getTimeWarp() {
+        return timeWarp;
+    }
+
+    public void setTimeWarp(float timeWarp) {
+        this.timeWarp = timeWarp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDepth(int index) {
+        return depths[index];
+    }
+
+    public int getParent(int index) {
+        return parents[index];
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public float getScale(int index) {
+        return scales[index];
+    }
+
+    /** True for bodies on a Kepler orbit around a parent, false for roots and free bodies. */
+    public boolean hasOrbit(int index) {
+        return parents[index] >= 0;
+    }
+
+    public float getSemiMajorAxis(int index) {
+        return semiMajorAxes[index];
+    }
+
+    /** Current ratio the orbit's y offsets are squashed by, which eases towards the target one. */
+    public float getAxisRatio(int index) {
+        return ignoreAxisRatios ? 1f : axisRatios[index];
+    }
+
+    /** Writes the point of the orbit at the given eccentric anomaly, as an offset from the parent before the tilt. */
+    public void getOrbitPoint(int index, float eccentricAnomaly, float[] out) {
+        float planeX = semiMajorAxes[index] * (MathUtils.cos(eccentricAnomaly) - eccentricities[index]);
+        float planeY = semiMinorAxes[index] * MathUtils.sin(eccentricAnomaly);
+        int offset = index * 4;
+        out[0] = orientations[offset] * planeX + orientations[offset + 1] * planeY;
+        out[1] = orientations[offset + 2] * planeX + orientations[offset + 3] * planeY;
+    }
+
+    /** Changes whenever a body is added or an orbit changes shape, for anything caching the orbits' geometry. */
+    public int getShapeVersion() {
+        return shapeVersion;
+    }
+
+    /** Mean anomaly of the body where it was last placed, the orbit angle for circular orbits. */
+    public float getAngle(int index) {
+        return meanAnomalies[index];
+    }
+
+    /** Moves the body along its orbit so that its mean anomaly is {@code angle} at the current time. */
+    public void setAngle(int index, float angle) {
+        ephemeris = null;
+        meanAnomaliesAtEpoch[index] = angle - directions[index] * meanMotions[index] * time;
+        meanAnomalies[index] = angle;
+    }
+
+    /** Changes the speed in degrees per second, the body carries on from where it is now. */
+    public void setOrbitSpeed(int index, float orbitSpeed) {
+        ephemeris = null;
+        double meanAnomaly = currentMeanAnomaly(index);
+        meanMotions[index] = MathUtils.degreesToRadians * orbitSpeed;
+        meanAnomaliesAtEpoch[index] = meanAnomaly - directions[index] * meanMotions[index] * time;
+    }
+
+    public void setTargetAxisRatio(int index, float targetAxisRatio) {
+        targetAxisRatios[index] = targetAxisRatio;
+    }
+
+    /** Reverses the body along its orbit from where it is now. */
+    public void toggleDirection(int index) {
+        ephemeris = null;
+        double meanAnomaly = currentMeanAnomaly(index);
+        directions[index] = -directions[index];
+        meanAnomaliesAtEpoch[index] = meanAnomaly - directions[index] * meanMotions[index] * time;
+    }
+
+    private double currentMeanAnomaly(int index) {
+        return meanAnomaliesAtEpoch[index] + directions[index] * meanMotions[index] * time;
+    }
+}
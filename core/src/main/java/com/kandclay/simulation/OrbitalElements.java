@@ -0,0 +1,25 @@
+package com.kandclay.simulation;
+
+/**
+ * Shape and orientation of a Keplerian orbit, angles in degrees. The size and period of the orbit are given separately
+ * when the body is added to the {@link OrbitSimulation}, as the game's distances and speeds are not to scale.
+ */
+public class OrbitalElements {
+    public final float eccentricity;
+    public final float inclination;
+    public final float argumentOfPeriapsis;
+    public final float longitudeOfAscendingNode;
+    public final float meanAnomalyAtEpoch;
+
+    public OrbitalElements(float eccentricity, float inclination, float argumentOfPeriapsis,
+                           float longitudeOfAscendingNode, float meanAnomalyAtEpoch) {
+        if (eccentricity < 0 || eccentricity >= OrbitSimulation.MAX_ECCENTRICITY) {
+            throw new IllegalArgumentException("Eccentricity must be in [0, " + OrbitSimulation.MAX_ECCENTRICITY + ")");
+        }
+        this.eccentricity = eccentricity;
+        this.inclination = inclination;
+        this.argumentOfPeriapsis = argumentOfPeriapsis;
+        this.longitudeOfAscendingNode = longitudeOfAscendingNode;
+        this.meanAnomalyAtEpoch = meanAnomalyAtEpoch;
+    }
+}
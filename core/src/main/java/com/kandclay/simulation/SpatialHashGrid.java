@@ -0,0 +1,186 @@
+package com.kandclay.simulation;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over circles, hashed into a fixed number of buckets so the world doesn't need bounds. The grid is
+ * rebuilt from scratch every tick with a counting sort into flat int arrays, which keeps both building and querying
+ * free of allocations once the arrays have grown to size. Items are referred to by the order they were added in.
+ * Circles covering too many cells are kept in a separate list that every query checks.
+ */
+public class SpatialHashGrid {
+    private static final int MAX_CELLS_PER_ITEM = 64;
+
+    private final float cellSize;
+    private final int bucketMask;
+    private final int[] bucketStarts;
+
+    private int size = 0;
+    private float[] x = new float[16];
+    private float[] y = new float[16];
+    private float[] radii = new float[16];
+    private int[] entries = new int[64];
+    private final IntArray oversized = new IntArray();
+
+    /** @param bucketCount rounded up to a power of two */
+    public SpatialHashGrid(float cellSize, int bucketCount) {
+        this.cellSize = cellSize;
+        int buckets = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        this.bucketMask = buckets - 1;
+        this.bucketStarts = new int[buckets + 1];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(float centerX, float centerY, float radius) {
+        if (size == x.length) {
+            int capacity = size * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+        }
+        x[size] = centerX;
+        y[size] = centerY;
+        radii[size] = radius;
+        size++;
+    }
+
+    /** Buckets every item added since {@link #clear()}. */
+    public void build() {
+        Arrays.fill(bucketStarts, 0);
+        oversized.clear();
+
+        // First pass counts the entries per bucket, shifted by one so the prefix sum yields the start offsets
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            int minX = cell(x[i] - radii[i]), maxX = cell(x[i] + radii[i]);
+            int minY = cell(y[i] - radii[i]), maxY = cell(y[i] + radii[i]);
+            if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS_PER_ITEM) {
+                oversized.add(i);
+                continue;
+            }
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cx = minX; cx <= maxX; cx++) {
+                    bucketStarts[bucket(cx, cy) + 1]++;
+                    total++;
+                }
+            }
+        }
+        for (int b = 1; b < bucketStarts.length; b++) {
+            bucketStarts[b] += bucketStarts[b - 1];
+        }
+        if (entries.length < total) {
+            entries = new int[Math.max(total, entries.length * 2)];
+        }
+
+        // Second pass fills the buckets, using the start offsets of the following bucket as write cursors
+        for (int i = 0; i < size; i++) {
+            int minX = cell(x[i] - radii[i]), maxX = cell(x[i] + radii[i]);
+            int minY = cell(y[i] - radii[i]), maxY = cell(y[i] + radii[i]);
+            if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS_PER_ITEM) {
+                continue;
+            }
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cx = minX; cx <= maxX; cx++) {
+                    int b = bucket(cx, cy);
+                    entries[bucketStarts[b]++] = i;
+                }
+            }
+        }
+        // The cursors ended on the start of the next bucket, shift back to get the start offsets again
+        System.arraycopy(bucketStarts, 0, bucketStarts, 1, bucketStarts.length - 1);
+        bucketStarts[0] = 0;
+    }
+
+    /**
+     * Adds every item whose circle contains the point to {@code result}, which is cleared first. An item may be
+     * reported twice when two of its cells share a bucket.
+     */
+    public void queryPoint(float pointX, float pointY, IntArray result) {
+        result.clear();
+        int b = bucket(cell(pointX), cell(pointY));
+        for (int k = bucketStarts[b], end = bucketStarts[b + 1]; k < end; k++) {
+            int i = entries[k];
+            if (contains(i, pointX, pointY)) {
+                result.add(i);
+            }
+        }
+        for (int k = 0; k < oversized.size; k++) {
+            int i = oversized.get(k);
+            if (contains(i, pointX, pointY)) {
+                result.add(i);
+            }
+        }
+    }
+
+    /**
+     * Returns the item whose circle edge is closest to the point, or -1 if none is within {@code maxDistance}. Cells are
+     * searched in growing rings, stopping once no unvisited cell can hold anything closer.
+     */
+    public int queryNearest(float pointX, float pointY, float maxDistance) {
+        int nearest = -1;
+        float nearestDistance = maxDistance;
+        for (int k = 0; k < oversized.size; k++) {
+            int i = oversized.get(k);
+            float distance = edgeDistance(i, pointX, pointY);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = i;
+            }
+        }
+
+        int centerX = cell(pointX);
+        int centerY = cell(pointY);
+        int maxRing = (int) Math.ceil(maxDistance / cellSize);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Everything in this ring is at least (ring - 1) cells away from the point
+            if (nearest >= 0 && (ring - 1) * cellSize > nearestDistance) {
+                break;
+            }
+            for (int cy = centerY - ring; cy <= centerY + ring; cy++) {
+                boolean edgeRow = cy == centerY - ring || cy == centerY + ring;
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int cx = centerX - ring; cx <= centerX + ring; cx += step) {
+                    int b = bucket(cx, cy);
+                    for (int k = bucketStarts[b], end = bucketStarts[b + 1]; k < end; k++) {
+                        int i = entries[k];
+                        float distance = edgeDistance(i, pointX, pointY);
+                        if (distance < nearestDistance) {
+                            nearestDistance = distance;
+                            nearest = i;
+                        }
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private boolean contains(int i, float pointX, float pointY) {
+        float dx = pointX - x[i];
+        float dy = pointY - y[i];
+        return dx * dx + dy * dy <= radii[i] * radii[i];
+    }
+
+    private float edgeDistance(int i, float pointX, float pointY) {
+        float dx = pointX - x[i];
+        float dy = pointY - y[i];
+        return Math.max(0f, (float) Math.sqrt(dx * dx + dy * dy) - radii[i]);
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucket(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & bucketMask;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,59 @@
+package com.kandclay.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+
+/** Generates large random hierarchies of orbiting bodies, for measuring the simulation rather than for display. */
+public final class SyntheticSystem {
+    private static final float MIN_DISTANCE = 200f;
+    private static final float MAX_DISTANCE = 4000f;
+    private static final float MIN_ORBIT_SPEED = 1f;
+    private static final float MAX_ORBIT_SPEED = 40f;
+    // Planet and moon masses as fractions of the star's, small enough that the star dominates
+    private static final double BODY_MASS_FRACTION = 1e-6;
+
+    private SyntheticSystem() {
+    }
+
+    /**
+     * Adds a star plus {@code bodyCount} bodies spread over {@code depth} levels below it (planets, moons, sub-moons,
+     * ...). Every body of a level gets the same number of children, chosen so that the levels together hold about
+     * {@code bodyCount} bodies. Returns the index of the star.
+     */
+    public static int populate(OrbitSimulation simulation, int bodyCount, int depth, long seed) {
+        RandomXS128 random = new RandomXS128(seed);
+        int root = simulation.addRoot(0, 0);
+        // Under gravity, the star pulls a body at the middle distance with the middle speed on a circle
+        double middleSpeed = MathUtils.degreesToRadians * (MIN_ORBIT_SPEED + MAX_ORBIT_SPEED) / 2;
+        double starParameter = middleSpeed * middleSpeed * Math.pow((MIN_DISTANCE + MAX_DISTANCE) / 2, 3);
+        simulation.setGravitationalParameter(root, starParameter);
+        if (bodyCount <= 0 || depth <= 0) {
+            return root;
+        }
+        int fanOut = Math.max(1, (int) Math.ceil(Math.pow(bodyCount, 1.0 / depth)));
+
+        float[] distances = new float[bodyCount + 1];
+        int levelStart = root;
+        int levelEnd = root + 1;
+        int added = 0;
+        for (int level = 1; level <= depth && added < bodyCount; level++) {
+            int nextLevelStart = simulation.size();
+            for (int parent = levelStart; parent < levelEnd && added < bodyCount; parent++) {
+                for (int child = 0; child < fanOut && added < bodyCount; child++) {
+                    float distance = level == 1
+                        ? MIN_DISTANCE + random.nextFloat() * (MAX_DISTANCE - MIN_DISTANCE)
+                        : distances[parent - root] * (0.05f + random.nextFloat() * 0.1f);
+                    float orbitSpeed = MIN_ORBIT_SPEED + random.nextFloat() * (MAX_ORBIT_SPEED - MIN_ORBIT_SPEED);
+                    int index = simulation.addBody(parent, distance, orbitSpeed);
+                    simulation.setAngle(index, random.nextFloat() * MathUtils.PI2);
+                    simulation.setGravitationalParameter(index, starParameter * BODY_MASS_FRACTION);
+                    distances[index - root] = distance;
+                    added++;
+                }
+            }
+            levelStart = nextLevelStart;
+            levelEnd = simulation.size();
+        }
+        return root;
+    }
+}
@@ -0,0 +1,62 @@
+package com.kandclay.telemetry;
+
+/**
+ * Receives timing events from the game: simulation ticks, texture decodes, texture uploads and screen changes. The
+ * default does nothing, a launcher can {@link #install(Telemetry)} a recorder for its platform before the game starts.
+ * <p>
+ * Each event is a pair of calls around the measured work: a {@code begin} method where it starts, whose result is
+ * passed to the matching {@code end} method where it ends, along with what was measured. The result is whatever the
+ * recorder needs to time the event, and may be null. Calls arrive on the render thread, except the texture decodes
+ * which run on the decoding threads, several at once; both calls of an event are made on the same thread.
+ * <p>
+ * Asset loads are the texture decodes, where the time of a load goes. The skin, the fonts and the atlas descriptors
+ * the asset manager loads are small files and are not reported, the atlas pages are textures and are.
+ */
+public class Telemetry {
+    private static Telemetry instance = new Telemetry();
+
+    public static Telemetry get() {
+        return instance;
+    }
+
+    public static void install(Telemetry telemetry) {
+        instance = telemetry;
+    }
+
+    /**
+     * Starts one {@code OrbitSimulation.update} or {@code step}, its fixed steps and the placement of the bodies
+     * together.
+     */
+    public Object beginSimulationTick() {
+        return null;
+    }
+
+    public void endSimulationTick(Object tick, int bodyCount) {
+    }
+
+    /** Starts reading and decoding a texture off the render thread. */
+    public Object beginAssetLoad() {
+        return null;
+    }
+
+    /** {@code bytes} is the size of the file. */
+    public void endAssetLoad(Object load, String path, long bytes) {
+    }
+
+    /** Starts uploading a decoded texture to the GPU. */
+    public Object beginTextureUpload() {
+        return null;
+    }
+
+    /** {@code bytes} is the texture's estimated size in video memory. */
+    public void endTextureUpload(Object upload, String path, int width, int height, long bytes) {
+    }
+
+    /** Starts a {@code Game.setScreen}, which hides the old screen and shows the new one. */
+    public Object beginScreenChange() {
+        return null;
+    }
+
+    public void endScreenChange(Object change, String from, String to) {
+    }
+}
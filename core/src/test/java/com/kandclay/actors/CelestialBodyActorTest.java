@@ -0,0 +1,65 @@
+package com.kandclay.actors;
+
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.managers.SpriteSheetAnimation;
+import com.kandclay.managers.SpriteTierManifest;
+import com.kandclay.simulation.OrbitSimulation;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CelestialBodyActorTest {
+    private static final float RADIUS = 10;
+
+    @Test
+    public void freeBodiesFollowTheSimulation() {
+        OrbitSimulation simulation = new OrbitSimulation();
+        int sun = simulation.addRoot(0, 0);
+        simulation.setGravitationalParameter(sun, 1e7);
+        int comet = simulation.addFreeBody(1000, 0, 0, 100, 0);
+        CelestialBodyActor sunActor = createActor(simulation, sun);
+        CelestialBodyActor cometActor = createActor(simulation, comet);
+        simulation.setGravityEnabled(true);
+
+        for (int frame = 0; frame < 60; frame++) {
+            simulation.update(1 / 60f);
+            sunActor.act(1 / 60f);
+            cometActor.act(1 / 60f);
+            assertFollows(simulation, comet, cometActor);
+            assertFollows(simulation, sun, sunActor);
+        }
+        // It has fallen and moved on from where it was thrown
+        assertTrue(simulation.getX(comet) < 1000);
+        assertTrue(simulation.getY(comet) > 0);
+    }
+
+    @Test
+    public void orbitingBodiesFollowTheSimulation() {
+        OrbitSimulation simulation = new OrbitSimulation();
+        int sun = simulation.addRoot(0, 0);
+        int planet = simulation.addBody(sun, 500, 10);
+        CelestialBodyActor actor = createActor(simulation, planet);
+        simulation.update(1 / 60f);
+        actor.act(1 / 60f);
+        assertEquals(simulation.getX(planet), actor.getX() + RADIUS, 1e-3f);
+        assertEquals(simulation.getY(planet), actor.getY() + RADIUS, 1e-3f);
+        assertEquals(simulation.getScale(planet), actor.getScaleX(), 0);
+    }
+
+    private static CelestialBodyActor createActor(OrbitSimulation simulation, int index) {
+        Array<SpriteTierManifest.Tier> tiers = new Array<SpriteTierManifest.Tier>();
+        tiers.add(new SpriteTierManifest.Tier("sprites/anim/moon.png", 64));
+        SpriteSheetAnimation animation = new SpriteSheetAnimation(null, tiers);
+        return new CelestialBodyActor("body" + index, RADIUS, RADIUS, animation, simulation, index, 0);
+    }
+
+    private static void assertFollows(OrbitSimulation simulation, int index, CelestialBodyActor actor) {
+        assertEquals(simulation.getX(index), actor.getX() + RADIUS, 1e-3f);
+        assertEquals(simulation.getY(index), actor.getY() + RADIUS, 1e-3f);
+        assertEquals(1, actor.getScaleX(), 0);
+        // Picking follows the body as well
+        assertEquals(simulation.getX(index), actor.getTouchableArea().x, 1e-3f);
+        assertEquals(simulation.getY(index), actor.getTouchableArea().y, 1e-3f);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kandclay.actors;
+
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.managers.SpriteSheetAnimation;
+import com.kandclay.managers.SpriteTierManifest;
+import com.kandclay.simulation.OrbitSimulation;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CelestialBodyGroupTest {
+    @Test
+    public void sortsNearlySortedFramesAtLowWarp() {
+        assertSortedEveryFrame(200, 1);
+    }
+
+    @Test
+    public void sortsShuffledFramesAtHighWarp() {
+        // Every depth is new each frame, and the first sort is of a whole batch in the order it was added
+        assertSortedEveryFrame(5000, 10000);
+    }
+
+    private static void assertSortedEveryFrame(int count, float timeWarp) {
+        Random random = new Random(17);
+        OrbitSimulation simulation = new OrbitSimulation(count + 3);
+        CelestialBodyGroup group = new CelestialBodyGroup();
+        // Roots share a depth, so they have to stay in the order they were added
+        CelestialBodyActor[] roots = new CelestialBodyActor[3];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = createActor(simulation, simulation.addRoot(i * 1000, 0));
+            group.addActor(roots[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            int body = simulation.addBody(random.nextInt(roots.length), 100 + random.nextFloat() * 2000,
+                1 + random.nextFloat() * 20);
+            group.addActor(createActor(simulation, body));
+        }
+        simulation.setTimeWarp(timeWarp);
+
+        for (int frame = 0; frame < 30; frame++) {
+            simulation.update(1 / 60f);
+            group.act(1 / 60f);
+            group.sortByDepth();
+            Array<CelestialBodyActor> renderList = group.getRenderList();
+            assertEquals(count + roots.length, renderList.size);
+            int root = 0;
+            for (int i = 0; i < renderList.size; i++) {
+                CelestialBodyActor body = renderList.get(i);
+                if (i > 0) {
+                    assertTrue("frame " + frame + " at " + i, renderList.get(i - 1).getDepth() <= body.getDepth());
+                }
+                if (body.getSimulationIndex() < roots.length) {
+                    assertSame(roots[root++], body);
+                }
+            }
+        }
+    }
+
+    private static CelestialBodyActor createActor(OrbitSimulation simulation, int index) {
+        Array<SpriteTierManifest.Tier> tiers = new Array<SpriteTierManifest.Tier>();
+        tiers.add(new SpriteTierManifest.Tier("sprites/anim/moon.png", 64));
+        return new CelestialBodyActor("body" + index, 10, 10, new SpriteSheetAnimation(null, tiers), simulation, index, 0);
+    }
+}
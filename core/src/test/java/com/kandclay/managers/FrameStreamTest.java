@@ -0,0 +1,141 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class FrameStreamTest {
+    private static final int WIDTH = 5;
+    private static final int HEIGHT = 3;
+    private static final int FRAME_COUNT = 10;
+    private static final int KEYFRAME_INTERVAL = 4;
+
+    @Test
+    public void decodesEveryFrameInOrder() throws IOException {
+        byte[][] frames = createFrames();
+        FrameStream stream = load(encode(frames, KEYFRAME_INTERVAL, FRAME_COUNT));
+        assertEquals(WIDTH, stream.getFrameWidth());
+        assertEquals(HEIGHT, stream.getFrameHeight());
+        assertEquals(FRAME_COUNT, stream.getFrameCount());
+        assertEquals(KEYFRAME_INTERVAL, stream.getKeyframeInterval());
+
+        FrameStream.Decoder decoder = stream.newDecoder();
+        for (int loop = 0; loop < 2; loop++) {
+            for (int index = 0; index < FRAME_COUNT; index++) {
+                assertFrame(frames, decoder, index);
+            }
+        }
+        decoder.dispose();
+    }
+
+    @Test
+    public void seeksBackAndForth() throws IOException {
+        byte[][] frames = createFrames();
+        FrameStream stream = load(encode(frames, KEYFRAME_INTERVAL, FRAME_COUNT));
+        FrameStream.Decoder decoder = stream.newDecoder();
+        // Past a keyframe, back within the same run, the same frame twice, the last frame and back to the first
+        int[] indices = {6, 5, 5, 7, 2, 9, 0, 3, 8};
+        for (int index : indices) {
+            assertFrame(frames, decoder, index);
+        }
+        decoder.dispose();
+    }
+
+    @Test
+    public void rejectsAStreamCutShort() throws IOException {
+        byte[] bytes = encode(createFrames(), KEYFRAME_INTERVAL, FRAME_COUNT);
+        try {
+            load(Arrays.copyOf(bytes, bytes.length - 1));
+            fail("Loaded a stream cut short");
+        } catch (GdxRuntimeException e) {
+            // Expected
+        }
+    }
+
+    private static void assertFrame(byte[][] frames, FrameStream.Decoder decoder, int index) {
+        ByteBuffer out = ByteBuffer.allocate(WIDTH * HEIGHT * 4);
+        decoder.decode(index, out);
+        assertEquals("frame " + index + " fills the buffer", 0, out.remaining());
+        assertArrayEquals("frame " + index, frames[index], out.array());
+    }
+
+    /** Random RGBA frames that change a little from one to the next, like the frames of a sheet. */
+    private static byte[][] createFrames() {
+        Random random = new Random(13);
+        byte[][] frames = new byte[FRAME_COUNT][WIDTH * HEIGHT * 4];
+        random.nextBytes(frames[0]);
+        for (int index = 1; index < FRAME_COUNT; index++) {
+            frames[index] = frames[index - 1].clone();
+            for (int change = 0; change < 8; change++) {
+                frames[index][random.nextInt(frames[index].length)] = (byte) random.nextInt();
+            }
+        }
+        return frames;
+    }
+
+    /** Writes the frames as the generateSpriteTiers task does. */
+    private static byte[] encode(byte[][] frames, int keyframeInterval, int frameCount) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int[] offsets = new int[frameCount + 1];
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        byte[] chunk = new byte[1024];
+        for (int index = 0; index < frameCount; index++) {
+            byte[] frame = frames[index];
+            if (index % keyframeInterval != 0) {
+                frame = new byte[frame.length];
+                for (int i = 0; i < frame.length; i++) {
+                    frame[i] = (byte) (frames[index][i] - frames[index - 1][i]);
+                }
+            }
+            offsets[index] = data.size();
+            deflater.reset();
+            deflater.setInput(frame);
+            deflater.finish();
+            while (!deflater.finished()) {
+                data.write(chunk, 0, deflater.deflate(chunk));
+            }
+        }
+        offsets[frameCount] = data.size();
+        deflater.end();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x46524D31);
+        out.writeInt(WIDTH);
+        out.writeInt(HEIGHT);
+        out.writeInt(frameCount);
+        out.writeInt(keyframeInterval);
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        data.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static FrameStream load(byte[] bytes) throws IOException {
+        File file = File.createTempFile("stream", ".frames");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(bytes);
+            }
+            return FrameStream.load(new FileHandle(file));
+        } finally {
+            file.delete();
+        }
+    }
+}
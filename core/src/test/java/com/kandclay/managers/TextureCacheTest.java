@@ -0,0 +1,50 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.KTXTextureData;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TextureCacheTest {
+    @Test
+    public void sizesCompressedTiersByBlock() {
+        // A 1024px tier of 28x28 frames, as generateSpriteTiers encodes it with -PspriteTierCompression=true
+        assertEquals(1024 * 1024, TextureCache.estimateBytes(compressedTier(1024, 1024, false)));
+        // Partial blocks take a whole one
+        assertEquals(2 * 3 * 16, TextureCache.estimateBytes(compressedTier(5, 9, false)));
+        assertEquals(1024 * 1024 * 4 / 3, TextureCache.estimateBytes(compressedTier(1024, 1024, true)));
+    }
+
+    @Test
+    public void sizesPixmapFormatsByPixel() {
+        assertEquals(4, TextureCache.bytesPerPixel(Pixmap.Format.RGBA8888));
+        assertEquals(3, TextureCache.bytesPerPixel(Pixmap.Format.RGB888));
+        assertEquals(2, TextureCache.bytesPerPixel(Pixmap.Format.RGB565));
+        assertEquals(1, TextureCache.bytesPerPixel(Pixmap.Format.Alpha));
+    }
+
+    /**
+     * KTX data as TextureData.Factory makes it for a .ktx tier, with the size its header would give once prepared.
+     * Like the real data, it has no pixmap format.
+     */
+    private static TextureData compressedTier(final int width, final int height, final boolean mipMaps) {
+        return new KTXTextureData(null, mipMaps) {
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public boolean useMipMaps() {
+                return mipMaps;
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.kandclay.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EphemerisTest {
+    // Earth's orbit at 10 degrees per second, and the span of the date slider, 1900 to 2100
+    private static final double YEAR = 36;
+    private static final double START = -100 * YEAR;
+    private static final double END = 100 * YEAR;
+    // Distance from the sun in pixels, orbit speed in degrees per second, then the elements of the planets
+    private static final float[][] PLANETS = {
+        {280, 20, 0.2056f, 7.005f, 29.126f, 48.331f, 174.794f},
+        {578.2f, 17.5f, 0.0068f, 3.395f, 54.922f, 76.680f, 50.378f},
+        {886.2f, 10, 0.0167f, 0f, 102.937f, 0f, 357.527f},
+        {1206.8f, 9, 0.0934f, 1.850f, 286.496f, 49.560f, 19.391f},
+        {1563.8f, 6.5f, 0.0484f, 1.304f, 274.254f, 100.474f, 19.668f},
+        {1939, 7.5f, 0.0539f, 2.486f, 338.937f, 113.662f, 317.355f},
+        {2335.2f, 6, 0.0473f, 0.773f, 96.937f, 74.017f, 142.284f},
+        {2744, 5.5f, 0.0086f, 1.770f, 273.181f, 131.784f, 259.915f},
+    };
+
+    @Test
+    public void matchesTheClosedFormOverTheSpan() {
+        OrbitSimulation simulation = createSolarSystem();
+        Ephemeris ephemeris = Ephemeris.fit(simulation, START, END);
+        assertMatches(simulation, ephemeris, 0.01);
+    }
+
+    @Test
+    public void savesAndLoadsTheFit() throws IOException {
+        OrbitSimulation simulation = createSolarSystem();
+        Ephemeris ephemeris = Ephemeris.fit(simulation, START, END);
+        File file = File.createTempFile("ephemeris", ".bin");
+        try {
+            ephemeris.save(new FileHandle(file));
+            Ephemeris loaded = Ephemeris.load(new FileHandle(file));
+            assertNotNull(loaded);
+            assertEquals(simulation.getOrbitFingerprint(), loaded.getFingerprint());
+            assertEquals(ephemeris.getBodyCount(), loaded.getBodyCount());
+            float[] expected = new float[2];
+            float[] actual = new float[2];
+            Random random = new Random(5);
+            for (int sample = 0; sample < 1000; sample++) {
+                int body = random.nextInt(simulation.size());
+                double time = START + random.nextDouble() * (END - START);
+                ephemeris.evaluate(body, time, expected);
+                loaded.evaluate(body, time, actual);
+                assertEquals(expected[0], actual[0], 0);
+                assertEquals(expected[1], actual[1], 0);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void freeBodiesKeepTheEphemeris() {
+        OrbitSimulation simulation = createSolarSystem();
+        Ephemeris ephemeris = Ephemeris.fit(simulation, START, END);
+        simulation.setEphemeris(ephemeris);
+        int comet = simulation.addFreeBody(5000, 0, 0, 100, 0);
+        assertSame(ephemeris, simulation.getEphemeris());
+
+        simulation.setTime(10 * YEAR);
+        assertEquals(5000, simulation.getX(comet), 0);
+        double[] offset = new double[2];
+        simulation.evaluateOffset(3, simulation.getTime(), offset);
+        assertEquals(offset[0], simulation.getX(3) - simulation.getX(0), 0.01);
+
+        // A body with an orbit isn't in the fit
+        simulation.addBody(0, 3000, 5);
+        assertNull(simulation.getEphemeris());
+    }
+
+    /** The sun, the planets and the moon, as CelestialBodyFactory sets them up. */
+    private static OrbitSimulation createSolarSystem() {
+        OrbitSimulation simulation = new OrbitSimulation();
+        int sun = simulation.addRoot(0, 0);
+        for (float[] planet : PLANETS) {
+            int body = simulation.addBody(sun, planet[0], planet[1]);
+            simulation.setElements(body, new OrbitalElements(planet[2], planet[3], planet[4], planet[5], planet[6]));
+        }
+        int moon = simulation.addBody(3, 140, 15);
+        simulation.setElements(moon, new OrbitalElements(0.0549f, 5.145f, 318.15f, 125.08f, 134.96f));
+        return simulation;
+    }
+
+    private static void assertMatches(OrbitSimulation simulation, Ephemeris ephemeris, double tolerance) {
+        assertTrue(ephemeris.covers(START) && ephemeris.covers(END));
+        float[] fitted = new float[2];
+        double[] exact = new double[2];
+        Random random = new Random(11);
+        double maxError = 0;
+        for (int sample = 0; sample < 100000; sample++) {
+            int body = 1 + random.nextInt(simulation.size() - 1);
+            double time = START + random.nextDouble() * (END - START);
+            ephemeris.evaluate(body, time, fitted);
+            simulation.evaluateOffset(body, time, exact);
+            maxError = Math.max(maxError, Math.hypot(fitted[0] - exact[0], fitted[1] - exact[1]));
+        }
+        assertTrue("largest error " + maxError + " px", maxError < tolerance);
+    }
+}
@@ -0,0 +1,80 @@
+package com.kandclay.simulation;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GravityFieldTest {
+    // GravityField.SOFTENING
+    private static final double SOFTENING = 4;
+
+    @Test
+    public void treeForcesMatchDirectSummation() {
+        // Above the parallel threshold, so the forces are evaluated in forked tasks
+        int count = 3000;
+        Random random = new Random(3);
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] mass = new double[count];
+        GravityField field = new GravityField(ForkJoinPool.commonPool());
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextGaussian() * 500;
+            y[i] = random.nextGaussian() * 500;
+            // A tenth are test particles, which feel the others but don't pull
+            mass[i] = i % 10 == 0 ? 0 : random.nextDouble() * 1000;
+            field.add(x[i], y[i], 0, 0, mass[i]);
+        }
+        // From rest the first kick and the last one give a velocity of about acceleration * delta
+        double delta = 1e-6;
+        field.step(delta, 1);
+
+        double errorSquared = 0;
+        double magnitudeSquared = 0;
+        for (int i = 0; i < count; i++) {
+            double accelerationX = 0;
+            double accelerationY = 0;
+            for (int j = 0; j < count; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double inverse = 1 / Math.sqrt(dx * dx + dy * dy + SOFTENING * SOFTENING);
+                accelerationX += mass[j] * inverse * inverse * inverse * dx;
+                accelerationY += mass[j] * inverse * inverse * inverse * dy;
+            }
+            double errorX = field.getVelocityX(i) / delta - accelerationX;
+            double errorY = field.getVelocityY(i) / delta - accelerationY;
+            errorSquared += errorX * errorX + errorY * errorY;
+            magnitudeSquared += accelerationX * accelerationX + accelerationY * accelerationY;
+        }
+        double relativeError = Math.sqrt(errorSquared / magnitudeSquared);
+        assertTrue("RMS relative error " + relativeError, relativeError < 0.02);
+    }
+
+    @Test
+    public void keepsACircularOrbitOverManyTurns() {
+        double mu = 1e7;
+        double radius = 1000;
+        double speed = Math.sqrt(mu / radius);
+        double period = 2 * Math.PI * radius / speed;
+        GravityField field = new GravityField(ForkJoinPool.commonPool());
+        field.add(0, 0, 0, 0, mu);
+        field.add(radius, 0, 0, speed, 0);
+
+        int turns = 10;
+        for (int turn = 0; turn < turns; turn++) {
+            field.step(period, 1000);
+            double dx = field.getX(1, 1f) - field.getX(0, 1f);
+            double dy = field.getY(1, 1f) - field.getY(0, 1f);
+            assertEquals("radius after " + (turn + 1) + " turns", radius, Math.sqrt(dx * dx + dy * dy), radius * 1e-3);
+        }
+        // Back where it started, the leapfrog's phase error stays small
+        assertEquals(radius, field.getX(1, 1f), radius * 1e-2);
+        assertEquals(0, field.getY(1, 1f), radius * 1e-2);
+    }
+}
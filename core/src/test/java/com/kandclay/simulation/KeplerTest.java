@@ -0,0 +1,51 @@
+package com.kandclay.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeplerTest {
+    // Reference solutions found by bisection
+    private static final double[][] SOLUTIONS = {
+        // eccentricity, mean anomaly, eccentric anomaly
+        {0.9, 1e-6, 9.9999999984999953e-6},
+        {0.9, 1e-3, 9.9985006820862733e-3},
+        {0.9, 0.1, 0.63084352756315365},
+        {0.9, -0.1, -0.63084352756315365},
+        {0.9, 1, 1.8620866868745320},
+        {0.9, Math.PI - 1e-3, 3.1410663377888097},
+        {0.9, Math.PI, Math.PI},
+        {0.8, 0.05, 0.24072691484674241},
+        {0.5, 2, 2.3542427582227807},
+    };
+
+    @Test
+    public void matchesKnownSolutions() {
+        for (double[] solution : SOLUTIONS) {
+            assertEquals("e = " + solution[0] + ", M = " + solution[1], solution[2],
+                OrbitSimulation.eccentricAnomaly(solution[1], solution[0]), 1e-12);
+        }
+    }
+
+    @Test
+    public void solvesTheEquationOverAWholeOrbit() {
+        for (int tenths = 1; tenths < 9; tenths++) {
+            assertSolvesOverAWholeOrbit(tenths / 10.0);
+        }
+        // The largest eccentricity OrbitalElements accepts
+        assertSolvesOverAWholeOrbit(OrbitSimulation.MAX_ECCENTRICITY);
+    }
+
+    private static void assertSolvesOverAWholeOrbit(double e) {
+        for (int step = -1000; step <= 1000; step++) {
+            double meanAnomaly = 2 * Math.PI * step / 1000;
+            double anomaly = OrbitSimulation.eccentricAnomaly(meanAnomaly, e);
+            assertEquals("e = " + e + ", M = " + meanAnomaly, meanAnomaly, anomaly - e * Math.sin(anomaly), 1e-12);
+        }
+    }
+
+    @Test
+    public void circularOrbitsKeepTheMeanAnomaly() {
+        assertEquals(1.234, OrbitSimulation.eccentricAnomaly(1.234, 0), 0);
+    }
+}
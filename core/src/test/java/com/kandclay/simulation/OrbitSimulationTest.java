@@ -0,0 +1,71 @@
+package com.kandclay.simulation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrbitSimulationTest {
+    // MathUtils.sin and cos are a lookup table good to about 2e-4 radians, evaluateOffset uses Math
+    private static final float TOLERANCE_PER_PIXEL = 1e-3f;
+
+    @Test
+    public void placesSmallBatchesOnTheirOrbits() {
+        assertPlacedOnOrbits(createPlanets(100));
+    }
+
+    @Test
+    public void placesLargeBatchesOnTheirOrbitsAcrossThePool() {
+        // Above the parallel threshold, so the anomalies and positions are computed in forked tasks
+        assertPlacedOnOrbits(createPlanets(40000));
+    }
+
+    @Test
+    public void freeBodiesKeepTheirVelocityWhileGravityIsOff() {
+        OrbitSimulation simulation = new OrbitSimulation();
+        simulation.addRoot(0, 0);
+        // Added with gravity off, massless and alone, so it only coasts
+        int comet = simulation.addFreeBody(5000, 0, 0, 100, 0);
+        simulation.setGravityEnabled(true);
+        simulation.step(1);
+        assertEquals(100, simulation.getY(comet), 1e-3);
+
+        simulation.setGravityEnabled(false);
+        simulation.setGravityEnabled(true);
+        simulation.step(1);
+        assertEquals(200, simulation.getY(comet), 1e-3);
+
+        // Scrubbing the date turns gravity off as well
+        simulation.setTime(simulation.getTime());
+        assertEquals(200, simulation.getY(comet), 1e-3);
+        simulation.setGravityEnabled(true);
+        simulation.step(1);
+        assertEquals(5000, simulation.getX(comet), 1e-3);
+        assertEquals(300, simulation.getY(comet), 1e-3);
+    }
+
+    private static OrbitSimulation createPlanets(int count) {
+        Random random = new Random(7);
+        OrbitSimulation simulation = new OrbitSimulation(count + 1);
+        int sun = simulation.addRoot(0, 0);
+        for (int i = 0; i < count; i++) {
+            int body = simulation.addBody(sun, 100 + random.nextFloat() * 2000, 1 + random.nextFloat() * 20);
+            simulation.setElements(body, new OrbitalElements(random.nextFloat() * 0.7f, random.nextFloat() * 10,
+                random.nextFloat() * 360, random.nextFloat() * 360, random.nextFloat() * 360));
+        }
+        simulation.setTimeWarp(1000);
+        return simulation;
+    }
+
+    private static void assertPlacedOnOrbits(OrbitSimulation simulation) {
+        simulation.step(1.5f);
+        double[] offset = new double[2];
+        for (int i = 1; i < simulation.size(); i++) {
+            simulation.evaluateOffset(i, simulation.getTime(), offset);
+            float tolerance = simulation.getSemiMajorAxis(i) * TOLERANCE_PER_PIXEL;
+            assertEquals("x of " + i, offset[0], simulation.getX(i), tolerance);
+            assertEquals("y of " + i, offset[1], simulation.getY(i), tolerance);
+        }
+    }
+}
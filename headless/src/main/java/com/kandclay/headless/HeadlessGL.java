@@ -0,0 +1,46 @@
+package com.kandclay.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * A {@link GL20} that ignores every call, except that it hands out non-zero handles and reports every shader and
+ * program as compiled. Enough to create a {@code SpriteBatch} or {@code Stage} without a display.
+ */
+public final class HeadlessGL {
+    private HeadlessGL() {
+    }
+
+    /** Installs the stub as {@link Gdx#gl}. Call it from the application thread, e.g. in {@code create()}. */
+    public static void install() {
+        GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+            (proxy, method, args) -> invoke(method, args));
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+    }
+
+    private static Object invoke(Method method, Object[] args) {
+        String name = method.getName();
+        Class<?> type = method.getReturnType();
+        if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+            int pname = (Integer) args[1];
+            IntBuffer params = (IntBuffer) args[2];
+            boolean ok = pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS;
+            params.put(params.position(), ok ? 1 : 0);
+            return null;
+        }
+        if (type == int.class && (name.startsWith("glCreate") || name.startsWith("glGen"))) {
+            return 1;
+        }
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == float.class) return 0f;
+        if (type == long.class) return 0L;
+        if (type == String.class) return "";
+        return null;
+    }
+}
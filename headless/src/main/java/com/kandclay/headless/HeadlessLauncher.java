@@ -0,0 +1,45 @@
+package com.kandclay.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/**
+ * Runs the world simulation without a display, as fast as it goes, and reports its throughput.
+ * Options: {@code --bodies N}, {@code --depth D}, {@code --seconds S}, {@code --report S} and {@code --seed N}.
+ */
+public class HeadlessLauncher {
+    public static void main(String[] args) {
+        int bodies = 10000;
+        int depth = 3;
+        float seconds = 60;
+        float report = 5;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--bodies":
+                    bodies = Integer.parseInt(value);
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(value);
+                    break;
+                case "--seconds":
+                    seconds = Float.parseFloat(value);
+                    break;
+                case "--report":
+                    report = Float.parseFloat(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // Never sleep between ticks
+        configuration.updatesPerSecond = 0;
+        new HeadlessApplication(new SoakRunner(bodies, depth, seed, seconds, report), configuration);
+    }
+}
@@ -0,0 +1,155 @@
+package com.kandclay.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.Constants;
+import com.kandclay.actors.CelestialBodyActor;
+import com.kandclay.actors.CelestialBodyGroup;
+import com.kandclay.controllers.CameraController;
+import com.kandclay.managers.CameraManager;
+import com.kandclay.managers.CelestialBodyFactory;
+import com.kandclay.managers.MyAssetManager;
+import com.kandclay.managers.StageManager;
+import com.kandclay.simulation.OrbitSimulation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+
+/**
+ * Drives the same world as {@code SolarSystemScreen}, a {@link StageManager} and a {@link CameraController}, at a
+ * fixed timestep over a synthetic system, one tick per render call. Every report interval it logs ticks per second,
+ * the allocation rate of the simulation thread and the heap, then exits once the soak duration is over.
+ */
+public class SoakRunner extends ApplicationAdapter {
+    private static final String TAG = "Soak";
+    private static final float STEP = OrbitSimulation.FIXED_STEP_SECONDS;
+    // Simulated seconds between camera target changes, so following a body is part of the load
+    private static final float RETARGET_SECONDS = 10;
+    private static final double MB = 1024 * 1024;
+
+    private final int bodyCount;
+    private final int depth;
+    private final long seed;
+    private final long durationNanos;
+    private final long reportNanos;
+
+    private MyAssetManager assetManager;
+    private StageManager stageManager;
+    private CameraController cameraController;
+    private final Array<CelestialBodyActor> celestialBodies = new Array<CelestialBodyActor>();
+    private com.sun.management.ThreadMXBean threads;
+
+    private long startNanos;
+    private long reportStartNanos;
+    private long reportStartTicks;
+    private long reportStartAllocated;
+    private long ticks;
+    private float sinceRetarget;
+    private double minTicksPerSecond = Double.MAX_VALUE;
+    private double maxTicksPerSecond;
+    private long peakHeap;
+
+    public SoakRunner(int bodyCount, int depth, long seed, float seconds, float reportSeconds) {
+        this.bodyCount = bodyCount;
+        this.depth = depth;
+        this.seed = seed;
+        this.durationNanos = (long) (seconds * 1e9);
+        this.reportNanos = (long) (reportSeconds * 1e9);
+    }
+
+    @Override
+    public void create() {
+        HeadlessGL.install();
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        OrbitSimulation simulation = new OrbitSimulation(bodyCount + 1);
+        CelestialBodyGroup planetGroup = new CelestialBodyGroup();
+        CameraManager cameraManager = new CameraManager(Constants.Camera.VIEWPORT_WIDTH_PIXELS_INIT, Constants.Camera.VIEWPORT_HEIGHT_PIXELS_INIT);
+        stageManager = new StageManager(cameraManager, celestialBodies, simulation);
+        assetManager = new MyAssetManager();
+        // Bodies are never drawn, so no sprite sheet is ever loaded
+        new CelestialBodyFactory(assetManager, planetGroup, celestialBodies, simulation, null)
+            .createSyntheticSystem(bodyCount, depth, seed);
+        stageManager.getWorldStage().addActor(planetGroup);
+        cameraController = new CameraController(cameraManager, Constants.Camera.MOVE_SPEED, Constants.Camera.ZOOM_IN_FACTOR,
+            Constants.Camera.ZOOM_OUT_FACTOR, celestialBodies);
+        cameraController.selectNextBody();
+
+        Gdx.app.log(TAG, String.format(Locale.ROOT, "%d bodies, depth %d, step %.4f s", simulation.size(), depth, STEP));
+        startNanos = System.nanoTime();
+        startReport(startNanos);
+    }
+
+    @Override
+    public void render() {
+        stageManager.update(STEP);
+        cameraController.update(STEP, false, false, false, false);
+        ticks++;
+        sinceRetarget += STEP;
+        if (sinceRetarget >= RETARGET_SECONDS) {
+            sinceRetarget = 0;
+            cameraController.selectNextBody();
+        }
+
+        long now = System.nanoTime();
+        if (now - reportStartNanos >= reportNanos) {
+            report(now);
+            startReport(now);
+        }
+        if (now - startNanos >= durationNanos) {
+            summarize(now);
+            Gdx.app.exit();
+        }
+    }
+
+    private void startReport(long now) {
+        reportStartNanos = now;
+        reportStartTicks = ticks;
+        reportStartAllocated = allocatedBytes();
+    }
+
+    private void report(long now) {
+        double seconds = (now - reportStartNanos) / 1e9;
+        double ticksPerSecond = (ticks - reportStartTicks) / seconds;
+        double allocationRate = (allocatedBytes() - reportStartAllocated) / seconds / MB;
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        minTicksPerSecond = Math.min(minTicksPerSecond, ticksPerSecond);
+        maxTicksPerSecond = Math.max(maxTicksPerSecond, ticksPerSecond);
+        peakHeap = Math.max(peakHeap, heap.getUsed());
+        Gdx.app.log(TAG, String.format(Locale.ROOT, "%.1f ticks/s, %.2f MB/s allocated, heap %.1f/%.1f MB, %d GCs",
+            ticksPerSecond, allocationRate, heap.getUsed() / MB, heap.getCommitted() / MB, gcCount()));
+    }
+
+    private void summarize(long now) {
+        double seconds = (now - startNanos) / 1e9;
+        Gdx.app.log(TAG, String.format(Locale.ROOT,
+            "%d ticks in %.1f s: %.1f ticks/s average, %.1f min, %.1f max, peak heap %.1f MB",
+            ticks, seconds, ticks / seconds, minTicksPerSecond == Double.MAX_VALUE ? 0 : minTicksPerSecond,
+            maxTicksPerSecond, peakHeap / MB));
+        Gdx.app.log(TAG, assetManager.getTextureCache().toString());
+    }
+
+    private long allocatedBytes() {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return 0;
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    @Override
+    public void dispose() {
+        stageManager.getWorldStage().dispose();
+        assetManager.dispose();
+    }
+}
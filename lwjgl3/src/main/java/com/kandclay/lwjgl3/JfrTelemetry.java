@@ -0,0 +1,149 @@
+package com.kandclay.lwjgl3;
+
+import com.kandclay.telemetry.Telemetry;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emits the game's {@link Telemetry} as Java Flight Recorder events, so hitches can be lined up with GC and JIT
+ * activity in JDK Mission Control. Events cost next to nothing unless a recording is running, start one with e.g.
+ * {@code -XX:StartFlightRecording=filename=solar-system.jfr}. Events begin where the measured work starts and are
+ * committed where it ends, so their start time and duration are JFR's own.
+ */
+public class JfrTelemetry extends Telemetry {
+    public JfrTelemetry() {
+        FlightRecorder.register(SimulationTickEvent.class);
+        FlightRecorder.register(AssetLoadEvent.class);
+        FlightRecorder.register(TextureUploadEvent.class);
+        FlightRecorder.register(ScreenChangeEvent.class);
+    }
+
+    @Override
+    public Object beginSimulationTick() {
+        return begin(new SimulationTickEvent());
+    }
+
+    @Override
+    public void endSimulationTick(Object tick, int bodyCount) {
+        if (tick != null) {
+            SimulationTickEvent event = (SimulationTickEvent) tick;
+            event.bodyCount = bodyCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginAssetLoad() {
+        return begin(new AssetLoadEvent());
+    }
+
+    @Override
+    public void endAssetLoad(Object load, String path, long bytes) {
+        if (load != null) {
+            AssetLoadEvent event = (AssetLoadEvent) load;
+            event.path = path;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginTextureUpload() {
+        return begin(new TextureUploadEvent());
+    }
+
+    @Override
+    public void endTextureUpload(Object upload, String path, int width, int height, long bytes) {
+        if (upload != null) {
+            TextureUploadEvent event = (TextureUploadEvent) upload;
+            event.path = path;
+            event.width = width;
+            event.height = height;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginScreenChange() {
+        return begin(new ScreenChangeEvent());
+    }
+
+    @Override
+    public void endScreenChange(Object change, String from, String to) {
+        if (change != null) {
+            ScreenChangeEvent event = (ScreenChangeEvent) change;
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    /** Starts timing the event, or returns null if it isn't being recorded. */
+    private static Event begin(Event event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Name("com.kandclay.SimulationTick")
+    @Label("Simulation Tick")
+    @Category({"Solar System", "Simulation"})
+    @StackTrace(false)
+    static class SimulationTickEvent extends Event {
+        @Label("Body Count")
+        int bodyCount;
+    }
+
+    @Name("com.kandclay.AssetLoad")
+    @Label("Asset Load")
+    @Description("A texture read and decoded on a texture decoding thread")
+    @Category({"Solar System", "Assets"})
+    @StackTrace(false)
+    static class AssetLoadEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.kandclay.TextureUpload")
+    @Label("Texture Upload")
+    @Category({"Solar System", "Assets"})
+    @StackTrace(false)
+    static class TextureUploadEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Estimated Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.kandclay.ScreenChange")
+    @Label("Screen Change")
+    @Category({"Solar System", "Screens"})
+    static class ScreenChangeEvent extends Event {
+        @Label("From")
+        String from;
+
+        @Label("To")
+        String to;
+    }
+}
@@ -3,6 +3,7 @@ package com.kandclay.lwjgl3;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.kandclay.Main;
+import com.kandclay.telemetry.Telemetry;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
@@ -12,6 +13,7 @@ public class Lwjgl3Launcher {
     }
 
     private static Lwjgl3Application createApplication() {
+        Telemetry.install(new JfrTelemetry());
         return new Lwjgl3Application(new Main(), getDefaultConfiguration());
     }
 